@@ -0,0 +1,97 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.server.impl;
+
+import com.intel.jndn.utils.SegmentSizePolicy;
+import com.intel.jndn.utils.TestHelper;
+import com.intel.jndn.utils.client.impl.AdvancedClient;
+import com.intel.jndn.utils.impl.PacketSizePolicy;
+import com.intel.jndn.utils.impl.SegmentationHelper;
+import com.intel.jndn.utils.processing.impl.SigningStage;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.SecurityException;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare the throughput of retrieving signed, segmented objects from a
+ * {@link SegmentedServer} with different {@link SegmentSizePolicy}s; requires a
+ * hostname to an NFD accepting a generated key to register prefixes, e.g.
+ * <code>-Dnfd.ip=10.10.10.1</code>.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class SegmentSizeBenchmarkIT {
+
+  private static final Logger logger = Logger.getLogger(SegmentSizeBenchmarkIT.class.getName());
+  private static final Name PREFIX = new Name("/test/segment-size").append(TestHelper.buildRandomString(10));
+  private static final int OBJECT_SIZE_BYTES = 1024 * 1024;
+  private static final int NUM_OBJECTS = 5;
+  private final TestHelper.NdnEnvironment environment;
+
+  public SegmentSizeBenchmarkIT() throws SecurityException {
+    String ip = System.getProperty("nfd.ip");
+    logger.info("Testing on NFD at: " + ip);
+    environment = TestHelper.buildTestEnvironment(ip, 2);
+  }
+
+  @Test
+  public void compareSegmentSizes() throws Exception {
+    Map<String, SegmentSizePolicy> policies = new LinkedHashMap<>();
+    policies.put("ethernet-udp", new PacketSizePolicy(PacketSizePolicy.ETHERNET_UDP_PACKET_SIZE,
+            environment.keyChain, environment.keyChain.getDefaultCertificateName()));
+    policies.put("fixed-" + SegmentationHelper.DEFAULT_SEGMENT_SIZE, SegmentSizePolicy.fixed(SegmentationHelper.DEFAULT_SEGMENT_SIZE));
+    policies.put("max-packet", new PacketSizePolicy(PacketSizePolicy.MAX_PACKET_SIZE,
+            environment.keyChain, environment.keyChain.getDefaultCertificateName()));
+
+    for (Map.Entry<String, SegmentSizePolicy> policy : policies.entrySet()) {
+      Name prefix = new Name(PREFIX).append(policy.getKey());
+      long elapsed = benchmark(prefix, policy.getValue());
+      logger.info(String.format("%s: transferred %d bytes in %d ms (%.2f MB/s)", policy.getKey(),
+              OBJECT_SIZE_BYTES * NUM_OBJECTS, elapsed, OBJECT_SIZE_BYTES * NUM_OBJECTS / 1000.0 / Math.max(elapsed, 1)));
+    }
+  }
+
+  private long benchmark(Name prefix, SegmentSizePolicy policy) throws Exception {
+    Face producer = environment.faces.get(0);
+    Face consumer = environment.faces.get(1);
+    SegmentedServer server = new SegmentedServer(producer, prefix);
+    server.setSegmentSizePolicy(policy);
+    server.addPostProcessingStage(new SigningStage(environment.keyChain));
+
+    for (int i = 0; i < NUM_OBJECTS; i++) {
+      Data data = new Data(new Name(prefix).append(Integer.toString(i)));
+      data.setContent(new Blob(TestHelper.buildRandomBytes(OBJECT_SIZE_BYTES)));
+      server.serve(data);
+    }
+
+    // TODO this must be here until the prefix registration callback is complete
+    Thread.sleep(500);
+
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < NUM_OBJECTS; i++) {
+      Data out = AdvancedClient.getDefault().getSync(consumer, new Name(prefix).append(Integer.toString(i)));
+      assertEquals(OBJECT_SIZE_BYTES, out.getContent().size());
+    }
+    return System.currentTimeMillis() - startTime;
+  }
+}
@@ -16,6 +16,13 @@ package com.intel.jndn.utils;
 import com.intel.jndn.utils.repository.impl.DataNotFoundException;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Interest;
+import net.named_data.jndn.util.Blob;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Define API for storing and retrieving NDN packets
@@ -24,6 +31,12 @@ import net.named_data.jndn.Interest;
  */
 public interface Repository {
 
+  /**
+   * The maximum number of packets of a stream put as one batch; see
+   * {@link #putAll(Stream)}
+   */
+  int STREAM_BATCH_SIZE = 256;
+
   /**
    * Put a {@link Data} packet in the repository.
    *
@@ -31,6 +44,38 @@ public interface Repository {
    */
   void put(Data data);
 
+  /**
+   * Put a batch of {@link Data} packets in the repository; implementations
+   * should override this to update their index and take locks once per batch.
+   *
+   * @param packets the {@link Data} packets, stored in iteration order
+   */
+  default void putAll(Collection<? extends Data> packets) {
+    for (Data data : packets) {
+      put(data);
+    }
+  }
+
+  /**
+   * Put a stream of {@link Data} packets in the repository, passing them to
+   * {@link #putAll(Collection)} in batches of at most
+   * {@link #STREAM_BATCH_SIZE} packets so that the stream is never held in
+   * memory at once.
+   *
+   * @param packets the {@link Data} packets, stored in encounter order
+   */
+  default void putAll(Stream<? extends Data> packets) {
+    List<Data> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+    Iterator<? extends Data> iterator = packets.iterator();
+    while (iterator.hasNext()) {
+      batch.add(iterator.next());
+      if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+        putAll(batch);
+        batch = new ArrayList<>(STREAM_BATCH_SIZE);
+      }
+    }
+  }
+
   /**
    * Retrieve a {@link Data} packet in the repository; this method should
    * respect child selectors, exclude selectors, etc.
@@ -41,6 +86,19 @@ public interface Repository {
    */
   Data get(Interest interest) throws DataNotFoundException;
 
+  /**
+   * Retrieve the wire encoding of a {@link Data} packet in the repository, e.g.
+   * to send it directly to a transport; implementations storing encoded
+   * packets should override this to avoid decoding and re-encoding.
+   *
+   * @param interest the {@link Interest}
+   * @return the wire-encoded {@link Data} packet
+   * @throws DataNotFoundException if the packet is not found
+   */
+  default Blob getEncoded(Interest interest) throws DataNotFoundException {
+    return get(interest).wireEncode();
+  }
+
   /**
    * Check if this repository can satisfy the {@link Interest} with a
    * {@link Data} packet; this should check not only name matching but freshness
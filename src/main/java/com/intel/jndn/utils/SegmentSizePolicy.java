@@ -0,0 +1,44 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils;
+
+import net.named_data.jndn.Data;
+
+/**
+ * Decide how many content bytes to place in each segment when a packet is
+ * segmented; e.g. a policy may size segments so that signed packets fit a
+ * link MTU.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public interface SegmentSizePolicy {
+
+  /**
+   * @param template the {@link Data} packet being segmented; its name, meta
+   * information and signature are copied into each segment
+   * @return the maximum number of content bytes per segment, a positive number
+   */
+  int segmentSize(Data template);
+
+  /**
+   * @param segmentSize the number of content bytes per segment
+   * @return a policy always returning the same segment size
+   */
+  static SegmentSizePolicy fixed(int segmentSize) {
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("The segment size must be positive: " + segmentSize);
+    }
+    return template -> segmentSize;
+  }
+}
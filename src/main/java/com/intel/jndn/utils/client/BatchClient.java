@@ -0,0 +1,81 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Define a client that retrieves many packets while keeping a bounded number
+ * of Interests in flight; results are reported in completion order, not in
+ * request order.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public interface BatchClient {
+
+  /**
+   * Asynchronously request the Data for each Interest; a new Interest is sent
+   * each time a pending one completes. With this method, the user is
+   * responsible for calling {@link Face#processEvents()} (or running a
+   * {@link com.intel.jndn.utils.impl.FaceReactor}) in order for the requests
+   * to complete.
+   *
+   * @param face the {@link Face} on which to make the requests
+   * @param interests the {@link Interest}s to send, consumed lazily
+   * @param observer the callbacks fired as each request completes
+   * @return a future completing once every request has been reported; a
+   * failed request does not fail the future
+   */
+  CompletableFuture<Void> getAllAsync(Face face, Iterator<Interest> interests, BatchObserver observer);
+
+  /**
+   * Convenience method for calling
+   * {@link #getAllAsync(Face, Iterator, BatchObserver)} with default
+   * {@link Interest} packets.
+   *
+   * @param face the {@link Face} on which to make the requests
+   * @param names the {@link Name}s to wrap inside default {@link Interest}s,
+   * consumed lazily
+   * @param observer the callbacks fired as each request completes
+   * @return a future completing once every request has been reported
+   */
+  CompletableFuture<Void> getAllAsync(Face face, Stream<Name> names, BatchObserver observer);
+
+  /**
+   * Callbacks fired on completion of each request of a batch; these may run
+   * concurrently on the threads completing the requests (e.g. the thread
+   * processing face events) and must not block.
+   */
+  interface BatchObserver {
+
+    /**
+     * @param interest the {@link Interest} sent
+     * @param data the {@link Data} retrieved
+     */
+    void onData(Interest interest, Data data);
+
+    /**
+     * @param interest the {@link Interest} sent
+     * @param failure the cause of the failure, e.g. a timeout
+     */
+    void onFailure(Interest interest, Exception failure);
+  }
+}
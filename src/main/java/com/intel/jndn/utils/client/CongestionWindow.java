@@ -0,0 +1,82 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client;
+
+/**
+ * Decide how many segment Interests a segmented fetch keeps in flight; a
+ * window is used by one stream at a time and may adapt as segments arrive or
+ * are lost.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public interface CongestionWindow {
+
+  /**
+   * @return the maximum number of Interests to keep in flight, at least one
+   */
+  int size();
+
+  /**
+   * Called when a segment Interest is sent.
+   *
+   * @param segmentNumber the segment requested
+   */
+  void onSent(long segmentNumber);
+
+  /**
+   * Called when a requested segment arrives.
+   *
+   * @param segmentNumber the segment received
+   */
+  void onData(long segmentNumber);
+
+  /**
+   * Called when a segment Interest times out or is rejected with a network
+   * NACK.
+   *
+   * @param segmentNumber the segment lost
+   */
+  void onLoss(long segmentNumber);
+
+  /**
+   * @param size the number of Interests in flight
+   * @return a window that never adapts, e.g. for controlled environments
+   */
+  static CongestionWindow fixed(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("The window size must be positive: " + size);
+    }
+    return new CongestionWindow() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void onSent(long segmentNumber) {
+        // fixed windows do not adapt
+      }
+
+      @Override
+      public void onData(long segmentNumber) {
+        // fixed windows do not adapt
+      }
+
+      @Override
+      public void onLoss(long segmentNumber) {
+        // fixed windows do not adapt
+      }
+    };
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.client.CongestionWindow;
+
+/**
+ * Additive-increase/multiplicative-decrease window, similar to the pipeline of
+ * ndncatchunks: the window starts in slow start, growing by one segment per
+ * segment received, until it reaches the slow start threshold; it then grows
+ * by one segment per window of segments received. On loss, the threshold and
+ * the window are cut by the decrease factor.
+ * <p>
+ * Adaptation is conservative: after a decrease, losses of segments requested
+ * before the decrease are ignored, so a burst of losses from one congestion
+ * event shrinks the window only once.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class AimdCongestionWindow implements CongestionWindow {
+
+  public static final double DEFAULT_INITIAL_WINDOW = 1;
+  public static final double DEFAULT_MAX_WINDOW = 1024;
+  public static final double DEFAULT_DECREASE_FACTOR = 0.5;
+  private final double maxWindow;
+  private final double decreaseFactor;
+  private double window;
+  private double threshold = Double.MAX_VALUE;
+  private long highestSent = -1;
+  private long recoveryPoint = -1;
+  private long decreaseCount = 0;
+
+  /**
+   * @param initialWindow the window size at start
+   * @param maxWindow the maximum window size
+   * @param decreaseFactor the factor applied to the window on loss, between 0
+   * and 1
+   */
+  public AimdCongestionWindow(double initialWindow, double maxWindow, double decreaseFactor) {
+    if (initialWindow < 1 || maxWindow < initialWindow) {
+      throw new IllegalArgumentException("Invalid window bounds: " + initialWindow + ", " + maxWindow);
+    }
+    if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+      throw new IllegalArgumentException("The decrease factor must be between 0 and 1: " + decreaseFactor);
+    }
+    this.window = initialWindow;
+    this.maxWindow = maxWindow;
+    this.decreaseFactor = decreaseFactor;
+  }
+
+  /**
+   * Build a window using default parameters
+   */
+  public AimdCongestionWindow() {
+    this(DEFAULT_INITIAL_WINDOW, DEFAULT_MAX_WINDOW, DEFAULT_DECREASE_FACTOR);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized int size() {
+    return (int) window;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void onSent(long segmentNumber) {
+    highestSent = Math.max(highestSent, segmentNumber);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void onData(long segmentNumber) {
+    if (window < threshold) {
+      window += 1;
+    } else {
+      window += 1 / window;
+    }
+    window = Math.min(window, maxWindow);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void onLoss(long segmentNumber) {
+    if (segmentNumber <= recoveryPoint) {
+      return;
+    }
+    threshold = Math.max(1, window * decreaseFactor);
+    window = threshold;
+    recoveryPoint = highestSent;
+    decreaseCount++;
+  }
+
+  /**
+   * @return the slow start threshold
+   */
+  public synchronized double threshold() {
+    return threshold;
+  }
+
+  /**
+   * @return the number of times the window was decreased
+   */
+  public synchronized long decreaseCount() {
+    return decreaseCount;
+  }
+}
@@ -15,6 +15,7 @@
 package com.intel.jndn.utils.client.impl;
 
 import com.intel.jndn.utils.client.RetryClient;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.OnData;
@@ -25,6 +26,15 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Retry requests with a lifetime multiplied by a backoff factor on each
+ * timeout, until the lifetime reaches a cutoff.
+ * <p>
+ * With an {@link RttEstimator}, the first retry uses the estimated
+ * retransmission timeout instead of the multiplied lifetime of the failed
+ * Interest, and a timeout backs the estimate off once per loss event (see
+ * {@link RttEstimator#backoff(double)}); retries are never sampled (Karn's
+ * algorithm). The Interest passed in is never modified.
+ *
  * @author Andrew Brown, andrew.brown@intel.com
  */
 public class BackoffRetryClient implements RetryClient {
@@ -32,19 +42,35 @@ public class BackoffRetryClient implements RetryClient {
   private static final Logger LOGGER = Logger.getLogger(BackoffRetryClient.class.getName());
   private final double cutoffLifetime;
   private final int backoffFactor;
+  private final RttEstimator estimator;
 
-  public BackoffRetryClient(double cutoffLifetime, int backoffFactor) {
+  /**
+   * @param cutoffLifetime the lifetime in milliseconds at which retries stop
+   * @param backoffFactor the factor applied to the lifetime on each retry
+   * @param estimator the estimator deciding the lifetime of the first retry or
+   * null to start from the lifetime of the failed Interest
+   */
+  public BackoffRetryClient(double cutoffLifetime, int backoffFactor, RttEstimator estimator) {
     this.cutoffLifetime = cutoffLifetime;
     this.backoffFactor = backoffFactor;
+    this.estimator = estimator;
+  }
+
+  public BackoffRetryClient(double cutoffLifetime, int backoffFactor) {
+    this(cutoffLifetime, backoffFactor, null);
   }
 
   @Override
   public void retry(Face face, Interest interest, OnData onData, OnTimeout onTimeout) throws IOException {
-    retryInterest(face, interest, onData, onTimeout);
+    Interest retried = new Interest(interest);
+    if (estimator != null) {
+      retryInterest(face, retried, estimator.getRto(), onData, onTimeout);
+    } else {
+      retryInterest(face, retried, interest.getInterestLifetimeMilliseconds() * backoffFactor, onData, onTimeout);
+    }
   }
 
-  private void retryInterest(Face face, Interest interest, OnData onData, OnTimeout onTimeout) throws IOException {
-    double newLifetime = interest.getInterestLifetimeMilliseconds() * backoffFactor;
+  private void retryInterest(Face face, Interest interest, double newLifetime, OnData onData, OnTimeout onTimeout) throws IOException {
     if (newLifetime < cutoffLifetime) {
       interest.setInterestLifetimeMilliseconds(newLifetime);
       resend(face, interest, onData, onTimeout);
@@ -54,13 +80,22 @@ public class BackoffRetryClient implements RetryClient {
   }
 
   private void resend(Face face, Interest interest, OnData onData, OnTimeout onTimeout) throws IOException {
-    LOGGER.log(Level.INFO, "Resending interest with {0}ms lifetime: {1}", new Object[]{interest.getInterestLifetimeMilliseconds(), interest.getName()});
-    face.expressInterest(interest, onData, timedOutInterest -> {
+    double lifetime = interest.getInterestLifetimeMilliseconds();
+    LOGGER.log(Level.INFO, "Resending interest with {0}ms lifetime: {1}", new Object[]{lifetime, interest.getName()});
+    // the face may be owned by a FaceReactor
+    FaceReactor.call(face, f -> f.expressInterest(interest, onData, timedOutInterest -> {
+      if (estimator != null) {
+        estimator.backoff(lifetime);
+      }
       try {
-        retryInterest(face, timedOutInterest, onData, onTimeout);
+        retryInterest(face, interest, lifetime * backoffFactor, onData, onTimeout);
       } catch (IOException e) {
         onTimeout.onTimeout(interest);
       }
+    })).whenComplete((id, e) -> {
+      if (e != null) {
+        onTimeout.onTimeout(interest);
+      }
     });
   }
 }
@@ -0,0 +1,244 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.Client;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Client answering repeated requests from a bounded cache of retrieved
+ * {@link Data}; requests missing the cache are sent with another
+ * {@link Client}. Packets are cached under the name requested and under their
+ * own name, and the least recently used names are evicted once the cache holds
+ * more than its maximum number of names or content bytes; each cached name
+ * counts the content size of its packet, and packets larger than the byte limit
+ * are not cached.
+ * <p>
+ * A cached packet is fresh for its FreshnessPeriod after retrieval and never
+ * fresh if it has none, as in an NDN content store; an Interest with
+ * MustBeFresh only accepts fresh packets, other Interests accept any cached
+ * packet. A cached packet is only returned if the Interest matches its name,
+ * and as a copy. Interests with a ChildSelector or Min/MaxSuffixComponents are
+ * always sent, since the packet cached under a name may not be the one these
+ * selectors choose among all packets under it.
+ * <p>
+ * This class is thread-safe; the cache is locked for each lookup and
+ * insertion.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CachingClient extends SimpleClient {
+
+  public static final int DEFAULT_MAX_ENTRIES = 1024;
+  public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+  private static final Logger logger = Logger.getLogger(CachingClient.class.getName());
+  private final Client client;
+  private final Map<Name, CacheRecord> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final int maxEntries;
+  private final long maxBytes;
+  private long bytes;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Build a caching client
+   *
+   * @param sleepTime for synchronous processing, the time to sleep the thread
+   * between {@link Face#processEvents()}
+   * @param interestLifetime the {@link Interest} lifetime for default
+   * Interests; see
+   * {@link #getAsync(net.named_data.jndn.Face, net.named_data.jndn.Name)}
+   * @param client the {@link Client} sending requests missing the cache
+   * @param maxEntries the maximum number of names cached
+   */
+  public CachingClient(long sleepTime, long interestLifetime, Client client, int maxEntries) {
+    this(sleepTime, interestLifetime, client, maxEntries, DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Build a caching client
+   *
+   * @param sleepTime for synchronous processing, the time to sleep the thread
+   * between {@link Face#processEvents()}
+   * @param interestLifetime the {@link Interest} lifetime for default
+   * Interests; see
+   * {@link #getAsync(net.named_data.jndn.Face, net.named_data.jndn.Name)}
+   * @param client the {@link Client} sending requests missing the cache
+   * @param maxEntries the maximum number of names cached
+   * @param maxBytes the maximum number of content bytes cached, counted once
+   * per cached name
+   */
+  public CachingClient(long sleepTime, long interestLifetime, Client client, int maxEntries, long maxBytes) {
+    super(sleepTime, interestLifetime);
+    this.client = client;
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Build a caching client using default parameters
+   *
+   * @param client the {@link Client} sending requests missing the cache
+   */
+  public CachingClient(Client client) {
+    this(DEFAULT_SLEEP_TIME, DEFAULT_TIMEOUT, client, DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If the cache holds an acceptable packet, the returned future is already
+   * complete and no Interest is sent.
+   */
+  @Override
+  public CompletableFuture<Data> getAsync(Face face, Interest interest) {
+    Data cached = lookup(interest);
+    if (cached != null) {
+      hits.incrementAndGet();
+      logger.log(Level.FINER, "Retrieved cached data: " + cached.getName().toUri());
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    misses.incrementAndGet();
+    Name requested = new Name(interest.getName());
+    return client.getAsync(face, interest).thenApply(data -> {
+      insert(requested, data);
+      return data;
+    });
+  }
+
+  /**
+   * @param interest the request
+   * @return an acceptable cached packet or null if none is cached
+   */
+  private Data lookup(Interest interest) {
+    if (hasSelectors(interest)) {
+      return null;
+    }
+    CacheRecord entry;
+    synchronized (cache) {
+      entry = cache.get(interest.getName());
+    }
+    if (entry == null || !interest.matchesName(entry.data.getName())) {
+      return null;
+    }
+    if (interest.getMustBeFresh() && entry.expiresAt <= System.currentTimeMillis()) {
+      return null;
+    }
+    return new Data(entry.data);
+  }
+
+  /**
+   * @param interest the request
+   * @return true if the request chooses among the packets under its name
+   */
+  private static boolean hasSelectors(Interest interest) {
+    return interest.getChildSelector() >= 0
+        || interest.getMinSuffixComponents() >= 0
+        || interest.getMaxSuffixComponents() >= 0;
+  }
+
+  private void insert(Name requested, Data data) {
+    CacheRecord entry = new CacheRecord(data);
+    if (entry.size > maxBytes) {
+      return;
+    }
+    synchronized (cache) {
+      put(requested, entry);
+      if (!requested.equals(data.getName())) {
+        put(new Name(data.getName()), entry);
+      }
+      Iterator<CacheRecord> eldest = cache.values().iterator();
+      while (cache.size() > maxEntries || bytes > maxBytes) {
+        bytes -= eldest.next().size;
+        eldest.remove();
+      }
+    }
+  }
+
+  private void put(Name name, CacheRecord entry) {
+    CacheRecord replaced = cache.put(name, entry);
+    bytes += entry.size - (replaced != null ? replaced.size : 0);
+  }
+
+  /**
+   * Remove all cached packets.
+   */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      bytes = 0;
+    }
+  }
+
+  /**
+   * @return the number of names cached
+   */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * @return the number of content bytes cached, counted once per cached name
+   */
+  public long sizeInBytes() {
+    synchronized (cache) {
+      return bytes;
+    }
+  }
+
+  /**
+   * @return the number of requests answered from the cache
+   */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of requests sent with the underlying client
+   */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /**
+   * Helper data structure
+   */
+  private static class CacheRecord {
+
+    final Data data;
+    final long expiresAt;
+    final int size;
+
+    CacheRecord(Data data) {
+      this.data = new Data(data);
+      double period = data.getMetaInfo().getFreshnessPeriod();
+      this.expiresAt = period < 0 ? 0 : System.currentTimeMillis() + (long) period;
+      this.size = data.getContent().size();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.Client;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Client sharing one outstanding request between concurrent requests for the
+ * same Data: while an Interest is in flight on a face, any other request on
+ * that face for the same name and selectors joins it instead of sending
+ * another Interest. Requests are keyed by name, CanBePrefix, suffix component
+ * bounds, child selector, MustBeFresh, exclude and key locator; the nonce and
+ * the lifetime are ignored, so a joining request completes (or times out) with
+ * the Interest already sent.
+ * <p>
+ * Each caller receives its own future completed from the shared one, so a
+ * caller cancelling its future does not affect the others.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CoalescingClient extends SimpleClient {
+
+  private static final Logger logger = Logger.getLogger(CoalescingClient.class.getName());
+  private final Client client;
+  private final ConcurrentMap<RequestKey, CompletableFuture<Data>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Build a coalescing client
+   *
+   * @param sleepTime for synchronous processing, the time to sleep the thread
+   * between {@link Face#processEvents()}
+   * @param interestLifetime the {@link Interest} lifetime for default
+   * Interests; see
+   * {@link #getAsync(net.named_data.jndn.Face, net.named_data.jndn.Name)}
+   * @param client the {@link Client} sending the shared requests
+   */
+  public CoalescingClient(long sleepTime, long interestLifetime, Client client) {
+    super(sleepTime, interestLifetime);
+    this.client = client;
+  }
+
+  /**
+   * Build a coalescing client using default parameters
+   *
+   * @param client the {@link Client} sending the shared requests
+   */
+  public CoalescingClient(Client client) {
+    this(DEFAULT_SLEEP_TIME, DEFAULT_TIMEOUT, client);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Data> getAsync(Face face, Interest interest) {
+    RequestKey key = new RequestKey(face, interest);
+    CompletableFuture<Data> created = new CompletableFuture<>();
+    CompletableFuture<Data> shared = inFlight.putIfAbsent(key, created);
+
+    if (shared == null) {
+      shared = created;
+      client.getAsync(face, interest).whenComplete((data, e) -> {
+        // remove first so that requests arriving after completion send a new Interest
+        inFlight.remove(key, created);
+        if (e != null) {
+          created.completeExceptionally(unwrap(e));
+        } else {
+          created.complete(data);
+        }
+      });
+    } else {
+      logger.log(Level.FINER, "Joining in-flight request for: " + interest.getName().toUri());
+    }
+
+    CompletableFuture<Data> future = new CompletableFuture<>();
+    shared.whenComplete((data, e) -> {
+      if (e != null) {
+        future.completeExceptionally(unwrap(e));
+      } else {
+        future.complete(data);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * @return the number of distinct requests currently in flight
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  /**
+   * Helper data structure: identifies requests retrieving the same Data on the
+   * same face
+   */
+  private static class RequestKey {
+
+    final Face face;
+    final String selectors;
+
+    RequestKey(Face face, Interest interest) {
+      this.face = face;
+      this.selectors = interest.getName().toUri()
+          + "|" + interest.getCanBePrefix()
+          + "|" + interest.getMinSuffixComponents()
+          + "|" + interest.getMaxSuffixComponents()
+          + "|" + interest.getChildSelector()
+          + "|" + interest.getMustBeFresh()
+          + "|" + interest.getExclude().toUri()
+          + "|" + interest.getKeyLocator().getType()
+          + "|" + interest.getKeyLocator().getKeyName().toUri()
+          + "|" + interest.getKeyLocator().getKeyData().toHex();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof RequestKey)) {
+        return false;
+      }
+      RequestKey other = (RequestKey) o;
+      return face == other.face && selectors.equals(other.selectors);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(face), selectors);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import net.named_data.jndn.Data;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Read-only view of the content of several packets as one logical sequence of
+ * bytes; the view refers to the packets' buffers so building it copies no
+ * content. Positions are longs so that a view may exceed 2GB.
+ * <p>
+ * This class is thread-safe as long as the packets' content is not modified:
+ * reads use their own buffer positions.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CompositeContent {
+
+  private final ByteBuffer[] buffers;
+  private final long[] offsets;
+  private final long size;
+
+  /**
+   * @param packets the packets whose content is viewed, in order
+   */
+  public CompositeContent(Data[] packets) {
+    this.buffers = new ByteBuffer[packets.length];
+    this.offsets = new long[packets.length];
+    long position = 0;
+    for (int i = 0; i < packets.length; i++) {
+      ByteBuffer content = packets[i].getContent().buf();
+      buffers[i] = content == null ? ByteBuffer.allocate(0) : content.asReadOnlyBuffer();
+      offsets[i] = position;
+      position += buffers[i].remaining();
+    }
+    this.size = position;
+  }
+
+  /**
+   * @return the total number of bytes viewed
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @param position the position of a byte in the view
+   * @return the byte at the position
+   * @throws IndexOutOfBoundsException if the position is not within the view
+   */
+  public byte get(long position) {
+    checkPosition(position);
+    int i = bufferIndex(position);
+    ByteBuffer buffer = buffers[i];
+    return buffer.get(buffer.position() + (int) (position - offsets[i]));
+  }
+
+  /**
+   * Copy bytes from the view, possibly spanning several packets.
+   *
+   * @param position the position in the view of the first byte to copy
+   * @param destination the buffer receiving bytes up to its remaining space
+   * @return the number of bytes copied, -1 if the position is the end of the
+   * view
+   */
+  public int read(long position, ByteBuffer destination) {
+    if (position == size) {
+      return -1;
+    }
+    checkPosition(position);
+
+    int copied = 0;
+    for (int i = bufferIndex(position); i < buffers.length && destination.hasRemaining(); i++) {
+      ByteBuffer source = buffers[i].duplicate();
+      source.position(source.position() + (int) Math.max(0, position - offsets[i]));
+      if (source.remaining() > destination.remaining()) {
+        source.limit(source.position() + destination.remaining());
+      }
+      copied += source.remaining();
+      destination.put(source);
+    }
+    return copied;
+  }
+
+  /**
+   * @return read-only views of each packet's content, in order, e.g. for a
+   * gathering write with {@link java.nio.channels.GatheringByteChannel#write(ByteBuffer[])}
+   */
+  public ByteBuffer[] buffers() {
+    ByteBuffer[] views = new ByteBuffer[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      views[i] = buffers[i].duplicate();
+    }
+    return views;
+  }
+
+  /**
+   * @return a stream reading the view from its first byte
+   */
+  public InputStream asInputStream() {
+    return new InputStream() {
+      private long position = 0;
+
+      @Override
+      public int read() {
+        return position < size ? get(position++) & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+          return 0;
+        }
+        int read = CompositeContent.this.read(position, ByteBuffer.wrap(bytes, offset, length));
+        if (read > 0) {
+          position += read;
+        }
+        return read;
+      }
+
+      @Override
+      public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+      }
+    };
+  }
+
+  private void checkPosition(long position) {
+    if (position < 0 || position >= size) {
+      throw new IndexOutOfBoundsException("No position " + position + " in " + size + " bytes");
+    }
+  }
+
+  /**
+   * @param position a position within the view
+   * @return the index of the last non-empty buffer starting at or before the
+   * position
+   */
+  private int bufferIndex(long position) {
+    int i = Arrays.binarySearch(offsets, position);
+    if (i < 0) {
+      return -i - 2;
+    }
+    // skip empty buffers sharing the offset
+    while (i + 1 < offsets.length && offsets[i + 1] == position) {
+      i++;
+    }
+    return i;
+  }
+}
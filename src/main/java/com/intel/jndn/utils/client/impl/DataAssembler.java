@@ -17,13 +17,16 @@ import com.intel.jndn.utils.impl.SegmentationHelper;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.util.Blob;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Internal class for assembling a list of {@link Data} packets into one large
  * data packet; this implementation will use all properties of the first packet
  * in the list and concatenate the content bytes of all packets in order.
+ * <p>
+ * The assembled content is sized from the segment lengths and gathered with a
+ * single copy, into a heap or a direct buffer; {@link #assembleView()} avoids
+ * the copy altogether.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
@@ -31,10 +34,24 @@ class DataAssembler {
 
   private final Data[] packets;
   private final byte marker;
+  private final boolean direct;
 
-  public DataAssembler(Data[] packets, byte marker) {
+  /**
+   * @param packets the packets to assemble, in order
+   * @param marker the marker of the segment component to remove from the name
+   * @param direct true to gather the content into a direct buffer, e.g. to
+   * pass it to a channel without another copy; read such content with
+   * {@link Blob#buf()} since {@link Blob#getImmutableArray()} requires a heap
+   * buffer
+   */
+  public DataAssembler(Data[] packets, byte marker, boolean direct) {
     this.packets = packets;
     this.marker = marker;
+    this.direct = direct;
+  }
+
+  public DataAssembler(Data[] packets, byte marker) {
+    this(packets, marker, false);
   }
 
   /**
@@ -49,20 +66,25 @@ class DataAssembler {
     // build from first returned packet
     Data combined = new Data(packets[0]);
     combined.setName(SegmentationHelper.removeSegment(combined.getName(), marker));
-    try {
-      combined.setContent(assembleBlob());
-    } catch (IOException ex) {
-      throw new IllegalStateException(ex);
-    }
+    combined.setContent(assembleBlob());
 
     return combined;
   }
 
+  /**
+   * @return a view of the concatenated content of all packets, without
+   * copying
+   */
+  CompositeContent assembleView() {
+    return new CompositeContent(packets);
+  }
+
   /**
    * @return the concatenated bytes
-   * @throws IOException if a stream fails
+   * @throws IllegalStateException if the content exceeds the 2GB limit of a
+   * single buffer; see {@link #assembleView()}
    */
-  private Blob assembleBlob() throws IOException {
+  private Blob assembleBlob() {
     if (packets.length == 0) {
       return new Blob();
     }
@@ -71,10 +93,22 @@ class DataAssembler {
       return packets[0].getContent();
     }
 
-    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    long size = 0;
+    for (Data packet : packets) {
+      size += packet.getContent().size();
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Content of " + size + " bytes exceeds a single buffer.");
+    }
+
+    ByteBuffer buffer = direct ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
     for (Data packet : packets) {
-      stream.write(packet.getContent().getImmutableArray());
+      ByteBuffer content = packet.getContent().buf();
+      if (content != null) {
+        buffer.put(content.duplicate());
+      }
     }
-    return new Blob(stream.toByteArray());
+    buffer.flip();
+    return new Blob(buffer, false);
   }
 }
@@ -0,0 +1,173 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.Client;
+import com.intel.jndn.utils.client.BatchClient;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Default implementation of {@link BatchClient}; requests are sent through
+ * another {@link Client} (e.g. a retrying client) with at most a fixed number
+ * of Interests in flight, so that a large batch fills the link without
+ * flooding the forwarder's pending Interest table.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class DefaultBatchClient implements BatchClient {
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+  private static final Logger logger = Logger.getLogger(DefaultBatchClient.class.getName());
+  private final Client client;
+  private final int maxInFlight;
+  private final long interestLifetime;
+
+  /**
+   * @param client the {@link Client} sending each request
+   * @param maxInFlight the maximum number of pending Interests per batch
+   * @param interestLifetime the {@link Interest} lifetime for default
+   * Interests; see {@link #getAllAsync(Face, Stream, BatchObserver)}
+   */
+  public DefaultBatchClient(Client client, int maxInFlight, long interestLifetime) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("At least one Interest must be in flight: " + maxInFlight);
+    }
+    this.client = client;
+    this.maxInFlight = maxInFlight;
+    this.interestLifetime = interestLifetime;
+  }
+
+  /**
+   * @param client the {@link Client} sending each request
+   * @param maxInFlight the maximum number of pending Interests per batch
+   */
+  public DefaultBatchClient(Client client, int maxInFlight) {
+    this(client, maxInFlight, SimpleClient.DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Build a batch client sending requests with a {@link SimpleClient}
+   */
+  public DefaultBatchClient() {
+    this(new SimpleClient(), DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Void> getAllAsync(Face face, Iterator<Interest> interests, BatchObserver observer) {
+    Batch batch = new Batch(face, interests, observer);
+    batch.drain();
+    return batch.done;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CompletableFuture<Void> getAllAsync(Face face, Stream<Name> names, BatchObserver observer) {
+    return getAllAsync(face, names.map(name -> new Interest(name, interestLifetime)).iterator(), observer);
+  }
+
+  /**
+   * @return the maximum number of pending Interests per batch
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Helper data structure: the state of one batch. Only one thread at a time
+   * sends Interests (the one that moved {@code draining} from zero); threads
+   * completing requests meanwhile only ask it to loop again, so the iterator
+   * needs no lock and completions never recurse into sends.
+   */
+  private class Batch {
+
+    final Face face;
+    final Iterator<Interest> interests;
+    final BatchObserver observer;
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger draining = new AtomicInteger();
+    volatile boolean exhausted = false;
+
+    Batch(Face face, Iterator<Interest> interests, BatchObserver observer) {
+      this.face = face;
+      this.interests = interests;
+      this.observer = observer;
+    }
+
+    void drain() {
+      if (draining.getAndIncrement() != 0) {
+        return;
+      }
+
+      do {
+        while (!exhausted && inFlight.get() < maxInFlight) {
+          Interest interest;
+          try {
+            if (!interests.hasNext()) {
+              exhausted = true;
+              break;
+            }
+            interest = interests.next();
+          } catch (RuntimeException e) {
+            exhausted = true;
+            done.completeExceptionally(e);
+            break;
+          }
+
+          inFlight.incrementAndGet();
+          client.getAsync(face, interest).whenComplete((data, e) -> complete(interest, data, e));
+        }
+
+        if (exhausted && inFlight.get() == 0) {
+          done.complete(null);
+        }
+      } while (draining.decrementAndGet() != 0);
+    }
+
+    void complete(Interest interest, Data data, Throwable e) {
+      try {
+        if (e == null) {
+          observer.onData(interest, data);
+        } else {
+          observer.onFailure(interest, unwrap(e));
+        }
+      } catch (RuntimeException ex) {
+        logger.log(Level.SEVERE, "Batch observer failed for: " + interest.toUri(), ex);
+      }
+      inFlight.decrementAndGet();
+      drain();
+    }
+  }
+
+  private static Exception unwrap(Throwable e) {
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    return cause instanceof Exception ? (Exception) cause : new Exception(cause);
+  }
+}
@@ -14,6 +14,7 @@
 package com.intel.jndn.utils.client.impl;
 
 import com.intel.jndn.utils.client.RetryClient;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -26,6 +27,12 @@ import java.util.logging.Logger;
 /**
  * Default implementation of {@link RetryClient}; on request failure, this class
  * immediately retries the request until a maximum number of retries is reached.
+ * <p>
+ * With an {@link RttEstimator}, each retry uses the estimated retransmission
+ * timeout as lifetime and a timed-out retry backs the estimate off once per
+ * loss event (see {@link RttEstimator#backoff(double)}); retries are never
+ * sampled (Karn's algorithm), so share the estimator with a component
+ * sampling first transmissions, e.g. a {@link DefaultSegmentedClient}.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
@@ -33,10 +40,21 @@ public class DefaultRetryClient implements RetryClient {
 
   private static final Logger LOGGER = Logger.getLogger(DefaultRetryClient.class.getName());
   private final int numRetriesAllowed;
+  private final RttEstimator estimator;
   private volatile int totalRetries = 0;
 
-  public DefaultRetryClient(int numRetriesAllowed) {
+  /**
+   * @param numRetriesAllowed the maximum number of retries per request
+   * @param estimator the estimator deciding the lifetime of retried Interests
+   * or null to retry with the lifetime of the original Interest
+   */
+  public DefaultRetryClient(int numRetriesAllowed, RttEstimator estimator) {
     this.numRetriesAllowed = numRetriesAllowed;
+    this.estimator = estimator;
+  }
+
+  public DefaultRetryClient(int numRetriesAllowed) {
+    this(numRetriesAllowed, null);
   }
 
   /**
@@ -63,8 +81,20 @@ public class DefaultRetryClient implements RetryClient {
    * @throws IOException when the client cannot perform the necessary network IO
    */
   private synchronized void retryInterest(RetryContext context) throws IOException {
-    LOGGER.info("Retrying interest: " + context.interest.toUri());
-    context.face.expressInterest(context.interest, context, context);
+    Interest interest = context.interest;
+    if (estimator != null) {
+      interest = new Interest(context.interest);
+      interest.setInterestLifetimeMilliseconds(estimator.getRto());
+    }
+    context.sentLifetime = interest.getInterestLifetimeMilliseconds();
+    LOGGER.info("Retrying interest: " + interest.toUri());
+    // the face may be owned by a FaceReactor; failing to send counts as a failed request
+    Interest retried = interest;
+    FaceReactor.call(context.face, f -> f.expressInterest(retried, context, context)).whenComplete((id, e) -> {
+      if (e != null) {
+        context.onTimeout(context.interest);
+      }
+    });
     totalRetries++;
   }
 
@@ -86,6 +116,7 @@ public class DefaultRetryClient implements RetryClient {
     final OnData applicationOnData;
     final OnTimeout applicationOnTimeout;
     int numFailures = 0;
+    double sentLifetime;
 
     RetryContext(Face face, Interest interest, OnData applicationOnData, OnTimeout applicationOnTimeout) {
       this.face = face;
@@ -106,6 +137,9 @@ public class DefaultRetryClient implements RetryClient {
     @Override
     public void onTimeout(Interest interest) {
       numFailures++;
+      if (estimator != null) {
+        estimator.backoff(sentLifetime);
+      }
       LOGGER.finest("Request failed, count " + numFailures + ": " + interest.toUri());
 
       if (shouldRetry()) {
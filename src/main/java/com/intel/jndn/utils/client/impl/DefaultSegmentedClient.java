@@ -13,23 +13,48 @@
  */
 package com.intel.jndn.utils.client.impl;
 
+import com.intel.jndn.utils.client.CongestionWindow;
 import com.intel.jndn.utils.client.DataStream;
 import com.intel.jndn.utils.client.SegmentedClient;
+import com.intel.jndn.utils.impl.FaceReactor;
 import com.intel.jndn.utils.impl.SegmentationHelper;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.Name.Component;
+import net.named_data.jndn.NetworkNack;
 import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnNetworkNack;
+import net.named_data.jndn.OnTimeout;
+import net.named_data.jndn.encoding.EncodingException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
- * Retrieve segments one by one until the FinalBlockId indicates an end segment;
- * then request remaining packets. This class currently only handles segmented
- * data (not yet byte-offset segmented data).
+ * Retrieve the first segment of a packet; once its FinalBlockId indicates the
+ * end segment, pipeline the remaining requests, keeping as many Interests in
+ * flight as a {@link CongestionWindow} allows (by default an
+ * {@link AimdCongestionWindow}, growing as segments arrive and shrinking on
+ * timeouts and NACKs). Until the end segment is known, segments are requested
+ * one at a time. This class currently only handles segmented data (not yet
+ * byte-offset segmented data).
+ * <p>
+ * Each stream also estimates its round-trip time with an {@link RttEstimator}
+ * sampling the segments received on their first request; the lifetime of
+ * segment Interests is the estimated retransmission timeout, so losses are
+ * detected in proportion to the real latency rather than after a constant
+ * lifetime. Timeouts back the estimate off and are still reported to the
+ * {@link DataStream} (e.g. for retries) with the backed-off timeout as
+ * lifetime; segments retrieved by other means do not adapt the window or the
+ * estimate.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
@@ -38,6 +63,38 @@ public class DefaultSegmentedClient implements SegmentedClient {
   private static final Logger logger = Logger.getLogger(DefaultSegmentedClient.class.getName());
   private static DefaultSegmentedClient defaultInstance;
   private final byte marker = 0x00;
+  private final Supplier<CongestionWindow> windows;
+  private final Supplier<RttEstimator> estimators;
+
+  /**
+   * Build a client pipelining segment requests within a congestion window
+   *
+   * @param windows builds a new window for each retrieved stream, e.g.
+   * {@code () -> CongestionWindow.fixed(8)}
+   * @param estimators builds a new RTT estimator for each retrieved stream;
+   * return a shared estimator to share it with e.g. a retry client
+   */
+  public DefaultSegmentedClient(Supplier<CongestionWindow> windows, Supplier<RttEstimator> estimators) {
+    this.windows = windows;
+    this.estimators = estimators;
+  }
+
+  /**
+   * Build a client pipelining segment requests within a congestion window
+   *
+   * @param windows builds a new window for each retrieved stream, e.g.
+   * {@code () -> CongestionWindow.fixed(8)}
+   */
+  public DefaultSegmentedClient(Supplier<CongestionWindow> windows) {
+    this(windows, RttEstimator::new);
+  }
+
+  /**
+   * Build a client using an {@link AimdCongestionWindow} for each stream
+   */
+  public DefaultSegmentedClient() {
+    this(AimdCongestionWindow::new);
+  }
 
   /**
    * Singleton access for simpler client use
@@ -56,14 +113,42 @@ public class DefaultSegmentedClient implements SegmentedClient {
    */
   @Override
   public DataStream getSegmentsAsync(Face face, Interest interest) throws IOException {
-    SegmentedDataStream stream = new SegmentedDataStream();
+    return getSegmentsAsync(face, interest, new SegmentedDataStream());
+  }
 
-    // once more packets are received, request more
-    stream.observe(new SegmentationContext(stream, face));
+  /**
+   * Retrieve segments into a given stream, e.g. a stream in streaming mode;
+   * segments are not requested beyond the {@link SegmentedDataStream#windowLimit()}
+   * of the stream, so a full stream window holds back the fetch until the
+   * next segment in order arrives.
+   *
+   * @param face the {@link Face} on which to make the requests
+   * @param interest the {@link Interest} for the first segment
+   * @param stream the stream to fill; register observers before calling this
+   * @return the stream
+   * @throws IOException if the initial request fails
+   */
+  public SegmentedDataStream getSegmentsAsync(Face face, Interest interest, SegmentedDataStream stream) throws IOException {
+    // once packets are received, the context requests more
+    SegmentationContext context = new SegmentationContext(stream, face, windows.get(), estimators.get());
+    // segments may also reach the stream from elsewhere, e.g. a retry client,
+    // advancing its window; refill the window whenever segments are observed
+    stream.observe((i, d) -> context.requestMore());
 
-    // request first packet
+    // request first packet; the face may be owned by a FaceReactor, in which
+    // case failures to send are reported to the stream
     logger.info("Interest requested: " + interest.toUri());
-    face.expressInterest(interest, stream, stream);
+    context.markSent(interest);
+    CompletableFuture<Long> sent = FaceReactor.call(face, f -> f.expressInterest(interest, context, context, context));
+    if (sent.isDone()) {
+      FaceReactor.await(sent);
+    } else {
+      sent.whenComplete((id, e) -> {
+        if (e != null) {
+          stream.onException(e instanceof Exception ? (Exception) e : new IOException(e));
+        }
+      });
+    }
 
     return stream;
   }
@@ -89,62 +174,150 @@ public class DefaultSegmentedClient implements SegmentedClient {
   }
 
   /**
-   * Helper class to track the last requested segment for a given request
-   * context and request follow-on packets
+   * @param name a packet or Interest name
+   * @return the segment number of the name or -1 if it is not segmented
    */
-  private class SegmentationContext implements OnData {
+  private static long segmentNumber(Name name) {
+    if (name.size() == 0 || !name.get(-1).isSegment()) {
+      return -1;
+    }
+    try {
+      return name.get(-1).toSegment();
+    } catch (EncodingException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Helper class to track the segments requested for a given request context,
+   * forward the responses to the stream and request follow-on packets within
+   * the congestion window
+   */
+  private class SegmentationContext implements OnData, OnTimeout, OnNetworkNack {
 
     private final SegmentedDataStream stream;
     private final Face face;
-    private long lastRequestedSegment;
+    private final CongestionWindow window;
+    private final RttEstimator estimator;
+    private final Map<Name, Long> sentTimes = new HashMap<>();
+    private Interest template;
+    private long firstSegment = -1;
+    private long nextSegment = 0;
+    private long highestSent = -1;
+    private long backoffRecoveryPoint = -1;
+    private int inFlight = 1; // the first Interest
 
-    public SegmentationContext(SegmentedDataStream stream, Face face) {
+    public SegmentationContext(SegmentedDataStream stream, Face face, CongestionWindow window, RttEstimator estimator) {
       this.stream = stream;
       this.face = face;
+      this.window = window;
+      this.estimator = estimator;
     }
 
-    private synchronized void setLastRequestedSegment(long segmentNumber) {
-      lastRequestedSegment = segmentNumber;
+    private synchronized void markSent(Interest interest) {
+      sentTimes.put(interest.getName(), System.nanoTime());
     }
 
     @Override
     public void onData(Interest interest, Data data) {
-      try {
-        if (stream.current() >= lastRequestedSegment) {
-          Interest dataBasedName = new Interest(interest).setName(data.getName());
-          if (stream.hasEnd()) {
-            if (stream.current() < stream.end()) {
-              requestRemainingSegments(face, dataBasedName, stream);
-            }
-          } else {
-            requestNext(face, dataBasedName, stream);
-          }
+      long segmentNumber = segmentNumber(data.getName());
+      synchronized (this) {
+        inFlight--;
+        Long sentAt = sentTimes.remove(interest.getName());
+        if (sentAt != null) {
+          estimator.addSample((System.nanoTime() - sentAt) / 1e6);
+        }
+        if (template == null) {
+          template = new Interest(interest).setName(data.getName());
+          firstSegment = segmentNumber;
+        } else {
+          window.onData(segmentNumber);
         }
-      } catch (IOException e) {
-        stream.onException(e);
       }
+
+      stream.onData(interest, data);
+      requestMore();
     }
 
-    private void requestRemainingSegments(Face face, Interest interest, SegmentedDataStream stream) throws IOException {
-      long from = stream.current() + 1;
-      long to = stream.end();
-      logger.info("Requesting remaining segments: from #" + from + " to #" + to);
+    @Override
+    public void onTimeout(Interest interest) {
+      stream.onTimeout(onLoss(interest, true));
+      requestMore();
+    }
 
-      for (long segmentNumber = stream.current() + 1; segmentNumber <= stream.end(); segmentNumber++) {
-        request(face, interest, stream, segmentNumber, marker);
+    @Override
+    public void onNetworkNack(Interest interest, NetworkNack networkNack) {
+      logger.info("Interest NACKed (" + networkNack.getReason() + "): " + interest.toUri());
+      stream.onTimeout(onLoss(interest, false));
+      requestMore();
+    }
+
+    /**
+     * Like the congestion window, the retransmission timeout is backed off
+     * once per loss event: Interests sent before the last back-off time out
+     * together and must not back it off again.
+     *
+     * @param interest the lost request
+     * @param timedOut true if the request timed out rather than being NACKed
+     * @return a copy of the request to retry, with the current retransmission
+     * timeout as lifetime
+     */
+    private synchronized Interest onLoss(Interest interest, boolean timedOut) {
+      inFlight--;
+      sentTimes.remove(interest.getName());
+      long segmentNumber = segmentNumber(interest.getName());
+      if (template != null && segmentNumber >= 0) {
+        window.onLoss(segmentNumber);
+      }
+      if (timedOut && (segmentNumber < 0 || segmentNumber > backoffRecoveryPoint)) {
+        estimator.backoff();
+        backoffRecoveryPoint = highestSent;
       }
+
+      Interest retry = new Interest(interest);
+      retry.setInterestLifetimeMilliseconds(estimator.getRto());
+      return retry;
     }
 
-    private void requestNext(Face face, Interest interest, SegmentedDataStream stream) throws IOException {
-      long segmentNumber = stream.current() + 1;
-      request(face, interest, stream, segmentNumber, marker);
+    /**
+     * Fill the window; the face is only used outside the lock since it may
+     * be owned by another thread calling back into this context.
+     */
+    private void requestMore() {
+      List<Interest> requests = new ArrayList<>();
+      synchronized (this) {
+        if (template == null || stream.isComplete()) {
+          return;
+        }
+
+        // until the end segment is known, request one segment at a time
+        int limit = stream.hasEnd() ? window.size() : 1;
+        long last = Math.min(stream.end(), stream.windowLimit());
+        while (inFlight < limit && peekNextSegment() <= last) {
+          long segmentNumber = peekNextSegment();
+          nextSegment = segmentNumber + 1;
+          highestSent = Math.max(highestSent, segmentNumber);
+          inFlight++;
+          window.onSent(segmentNumber);
+          Interest request = replaceFinalComponent(template, segmentNumber, marker);
+          request.setInterestLifetimeMilliseconds(estimator.getRto());
+          requests.add(request);
+          markSent(request);
+        }
+      }
+
+      for (Interest request : requests) {
+        FaceReactor.call(face, f -> f.expressInterest(request, this, this, this)).whenComplete((id, e) -> {
+          if (e != null) {
+            stream.onException(e instanceof Exception ? (Exception) e : new IOException(e));
+          }
+        });
+        logger.info("Interest sent: " + request.toUri());
+      }
     }
 
-    private void request(Face face, Interest interest, DataStream stream, long segmentNumber, byte marker) throws IOException {
-      Interest copiedInterest = replaceFinalComponent(interest, segmentNumber, marker);
-      face.expressInterest(copiedInterest, stream, stream);
-      logger.info("Interest sent: " + copiedInterest.toUri());
-      setLastRequestedSegment(segmentNumber);
+    private long peekNextSegment() {
+      return nextSegment == firstSegment ? nextSegment + 1 : nextSegment;
     }
   }
 
@@ -16,7 +16,6 @@ package com.intel.jndn.utils.client.impl;
 import com.intel.jndn.utils.client.DataStream;
 import com.intel.jndn.utils.client.OnException;
 import com.intel.jndn.utils.client.SegmentationType;
-import com.intel.jndn.utils.client.SegmentedClient;
 import com.intel.jndn.utils.client.StreamingClient;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
@@ -38,6 +37,7 @@ import java.util.logging.Logger;
  * @author Andrew Brown, andrew.brown@intel.com
  */
 public class DefaultStreamingClient implements StreamingClient {
+  public static final int DEFAULT_STREAM_WINDOW = 256;
   private static final Logger LOGGER = Logger.getLogger(DefaultStreamingClient.class.getName());
 
   /**
@@ -55,12 +55,15 @@ public class DefaultStreamingClient implements StreamingClient {
    * @param partitionMarker the byte marker identifying how the data packets are partitioned (e.g. segmentation, see
    * http://named-data.net/doc/tech-memos/naming-conventions.pdf)
    * @param onException callback fired if a failure occurs during streaming
-   * @return a stream of content bytes
+   * @return a stream of content bytes; segments are released once piped, so
+   * at most {@link #DEFAULT_STREAM_WINDOW} segments are held in memory
    * @throws IOException if the stream setup fails
    */
   public InputStream getStreamAsync(Face face, Interest interest, SegmentationType partitionMarker, OnException onException) throws IOException {
-    SegmentedClient client = DefaultSegmentedClient.getDefault();
-    return getStreamAsync(client.getSegmentsAsync(face, interest), onException);
+    SegmentedDataStream stream = new SegmentedDataStream(DEFAULT_STREAM_WINDOW);
+    InputStream in = getStreamAsync(stream, onException);
+    DefaultSegmentedClient.getDefault().getSegmentsAsync(face, interest, stream);
+    return in;
   }
 
   /**
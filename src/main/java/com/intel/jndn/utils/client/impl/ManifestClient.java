@@ -0,0 +1,164 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.impl.ManifestHelper;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.SecurityException;
+import net.named_data.jndn.util.Blob;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+/**
+ * Retrieve objects segmented with manifests (see {@link ManifestHelper} and
+ * {@link com.intel.jndn.utils.server.impl.ManifestServer}): the manifests of
+ * the object are retrieved and their signatures verified once, then all
+ * segments are requested in parallel and each is checked against the digest
+ * listed in the manifests instead of verifying its signature. The returned
+ * future completes with the assembled object or exceptionally with a
+ * {@link SecurityException} if a manifest or segment fails verification.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ManifestClient extends SimpleClient {
+
+  private static final Logger logger = Logger.getLogger(ManifestClient.class.getName());
+  private static final byte NDN_SEGMENT_MARKER = 0x00;
+  private final KeyChain keyChain;
+
+  /**
+   * Build a manifest client
+   *
+   * @param sleepTime for synchronous processing, the time to sleep the thread
+   * between {@link Face#processEvents()}
+   * @param interestLifetime the {@link Interest} lifetime for default
+   * Interests; see
+   * {@link #getAsync(net.named_data.jndn.Face, net.named_data.jndn.Name)}
+   * @param keyChain the {@link KeyChain} verifying the manifest signatures
+   */
+  public ManifestClient(long sleepTime, long interestLifetime, KeyChain keyChain) {
+    super(sleepTime, interestLifetime);
+    this.keyChain = keyChain;
+  }
+
+  /**
+   * Build a manifest client using default parameters
+   *
+   * @param keyChain the {@link KeyChain} verifying the manifest signatures
+   */
+  public ManifestClient(KeyChain keyChain) {
+    this(DEFAULT_SLEEP_TIME, DEFAULT_TIMEOUT, keyChain);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param interest the {@link Interest} for the object; its name must not
+   * include a segment or manifest component
+   */
+  @Override
+  public CompletableFuture<Data> getAsync(Face face, Interest interest) {
+    Name manifestName = ManifestHelper.manifestName(interest.getName());
+    return getVerifiedAsync(face, copy(interest, new Name(manifestName).appendSegment(0)))
+            .thenCompose(first -> getRemainingManifests(face, interest, manifestName, first))
+            .thenCompose(manifests -> getSegments(face, interest, manifests))
+            .thenApply(segments -> new DataAssembler(segments.toArray(new Data[segments.size()]), NDN_SEGMENT_MARKER).assemble());
+  }
+
+  private CompletableFuture<List<Data>> getRemainingManifests(Face face, Interest interest, Name manifestName, Data first) {
+    long last;
+    try {
+      last = first.getMetaInfo().getFinalBlockId().toSegment();
+    } catch (EncodingException e) {
+      throw new CompletionException(new SecurityException("Manifest has no final block: " + first.getName().toUri()));
+    }
+
+    List<CompletableFuture<Data>> manifests = new ArrayList<>();
+    manifests.add(CompletableFuture.completedFuture(first));
+    for (long i = 1; i <= last; i++) {
+      manifests.add(getVerifiedAsync(face, copy(interest, new Name(manifestName).appendSegment(i))));
+    }
+    return all(manifests);
+  }
+
+  private CompletableFuture<List<Data>> getSegments(Face face, Interest interest, List<Data> manifests) {
+    List<Blob> digests;
+    try {
+      digests = ManifestHelper.parseDigests(manifests);
+    } catch (EncodingException e) {
+      throw new CompletionException(new SecurityException(e.getMessage()));
+    }
+
+    logger.finer("Verified " + manifests.size() + " manifests listing " + digests.size() + " segments: "
+            + interest.getName().toUri());
+    List<CompletableFuture<Data>> segments = new ArrayList<>(digests.size());
+    for (int i = 0; i < digests.size(); i++) {
+      Blob expected = digests.get(i);
+      segments.add(super.getAsync(face, copy(interest, new Name(interest.getName()).appendSegment(i)))
+              .thenApply(segment -> checkDigest(segment, expected)));
+    }
+    return all(segments);
+  }
+
+  /**
+   * @param face the {@link Face} on which to make the request
+   * @param interest the {@link Interest} for a signed packet
+   * @return a future completing with the packet once its signature is verified
+   */
+  private CompletableFuture<Data> getVerifiedAsync(Face face, Interest interest) {
+    return super.getAsync(face, interest).thenCompose(data -> {
+      CompletableFuture<Data> verified = new CompletableFuture<>();
+      try {
+        keyChain.verifyData(data, verified::complete, (failed, reason) -> verified.completeExceptionally(
+                new SecurityException("Failed to verify manifest " + failed.getName().toUri() + ": " + reason)));
+      } catch (SecurityException e) {
+        verified.completeExceptionally(e);
+      }
+      return verified;
+    });
+  }
+
+  private static Data checkDigest(Data segment, Blob expected) {
+    if (!ManifestHelper.digest(segment).equals(expected)) {
+      throw new CompletionException(new SecurityException("Segment does not match its manifest digest: "
+              + segment.getName().toUri()));
+    }
+    return segment;
+  }
+
+  private static Interest copy(Interest interest, Name name) {
+    Interest copied = new Interest(interest);
+    copied.setName(name);
+    return copied;
+  }
+
+  private static <T> CompletableFuture<List<T>> all(List<CompletableFuture<T>> futures) {
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+      List<T> results = new ArrayList<>(futures.size());
+      for (CompletableFuture<T> future : futures) {
+        results.add(future.join());
+      }
+      return results;
+    });
+  }
+}
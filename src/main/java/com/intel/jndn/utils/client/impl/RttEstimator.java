@@ -0,0 +1,135 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+/**
+ * Estimate the round-trip time of requests and derive a retransmission
+ * timeout as specified by RFC 6298: the first sample R sets SRTT = R and
+ * RTTVAR = R/2; each later sample updates RTTVAR = 3/4 RTTVAR + 1/4 |SRTT - R|
+ * and SRTT = 7/8 SRTT + 1/8 R; the timeout is SRTT + max(G, 4 RTTVAR) for a
+ * clock granularity G, kept within a minimum and a maximum. Each timeout
+ * doubles the timeout until the next sample (exponential backoff).
+ * <p>
+ * Following Karn's algorithm, callers should only sample requests that were
+ * not retransmitted, since the response to a retransmitted Interest cannot be
+ * matched to one transmission.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class RttEstimator {
+
+  public static final double DEFAULT_INITIAL_RTO = 1000;
+  public static final double DEFAULT_MIN_RTO = 200;
+  public static final double DEFAULT_MAX_RTO = 60000;
+  private static final double ALPHA = 1.0 / 8;
+  private static final double BETA = 1.0 / 4;
+  private static final double K = 4;
+  private static final double CLOCK_GRANULARITY = 1;
+  private final double minRto;
+  private final double maxRto;
+  private double smoothedRtt = -1;
+  private double rttVariation = -1;
+  private double rto;
+
+  /**
+   * @param initialRto the timeout in milliseconds before any sample
+   * @param minRto the minimum timeout in milliseconds
+   * @param maxRto the maximum timeout in milliseconds
+   */
+  public RttEstimator(double initialRto, double minRto, double maxRto) {
+    if (minRto <= 0 || maxRto < minRto) {
+      throw new IllegalArgumentException("Invalid timeout bounds: " + minRto + ", " + maxRto);
+    }
+    this.minRto = minRto;
+    this.maxRto = maxRto;
+    this.rto = bound(initialRto);
+  }
+
+  /**
+   * Build an estimator using default parameters
+   */
+  public RttEstimator() {
+    this(DEFAULT_INITIAL_RTO, DEFAULT_MIN_RTO, DEFAULT_MAX_RTO);
+  }
+
+  /**
+   * Add a round-trip time measurement; this resets any backoff.
+   *
+   * @param rtt the measured round-trip time in milliseconds
+   */
+  public synchronized void addSample(double rtt) {
+    if (smoothedRtt < 0) {
+      smoothedRtt = rtt;
+      rttVariation = rtt / 2;
+    } else {
+      rttVariation = (1 - BETA) * rttVariation + BETA * Math.abs(smoothedRtt - rtt);
+      smoothedRtt = (1 - ALPHA) * smoothedRtt + ALPHA * rtt;
+    }
+    rto = bound(smoothedRtt + Math.max(CLOCK_GRANULARITY, K * rttVariation));
+  }
+
+  /**
+   * Double the timeout after a request times out.
+   */
+  public synchronized void backoff() {
+    rto = bound(rto * 2);
+  }
+
+  /**
+   * Double the timeout after a request sent with the given timeout times out,
+   * unless the timeout already grew since; requests sent together and timing
+   * out together thus back the timeout off once, as a single loss event.
+   *
+   * @param expiredRto the timeout in milliseconds of the expired request, e.g.
+   * its Interest lifetime
+   * @return true if the timeout was backed off
+   */
+  public synchronized boolean backoff(double expiredRto) {
+    if (rto > expiredRto) {
+      return false;
+    }
+    backoff();
+    return true;
+  }
+
+  /**
+   * @return the retransmission timeout in milliseconds, usable as an
+   * {@link net.named_data.jndn.Interest} lifetime
+   */
+  public synchronized double getRto() {
+    return rto;
+  }
+
+  /**
+   * @return the smoothed round-trip time in milliseconds or -1 before any
+   * sample
+   */
+  public synchronized double getSmoothedRtt() {
+    return smoothedRtt;
+  }
+
+  /**
+   * @return the round-trip time variation in milliseconds or -1 before any
+   * sample
+   */
+  public synchronized double getRttVariation() {
+    return rttVariation;
+  }
+
+  private double bound(double timeout) {
+    return Math.min(maxRto, Math.max(minRto, timeout));
+  }
+}
@@ -25,12 +25,12 @@ import net.named_data.jndn.OnTimeout;
 import net.named_data.jndn.encoding.EncodingException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * As packets are received, they are mapped by their last component's segment
@@ -41,6 +41,20 @@ import java.util.stream.Collectors;
  * and only packet to assemble. Observers may register callbacks to watch when
  * data is received; if data is received out of order, the callbacks will not be
  * fired until adjoining packets are received.
+ * <p>
+ * By default, all packets are kept until the stream is assembled. In streaming
+ * mode (see {@link #SegmentedDataStream(int)}), only packets received out of
+ * order are kept, in a ring indexed by segment number; a packet is released
+ * once the data observers have been called with it, so memory stays bounded by
+ * the window however large the content. Fetchers should not request segments
+ * beyond {@link #windowLimit()}; such packets fail the stream.
+ * <p>
+ * Observers are kept in copy-on-write arrays, one per callback type, so events
+ * are dispatched without locking or allocating. The stream monitor only guards
+ * packet storage and is never held while calling observers; one thread at a
+ * time delivers packets in order (others only store theirs), so data
+ * observers are never called concurrently and always see segments in order.
+ * Completion is signalled once.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
@@ -50,9 +64,38 @@ public class SegmentedDataStream implements DataStream {
   private final byte PARTITION_MARKER = 0x00;
   private volatile long current = -1;
   private volatile long end = Long.MAX_VALUE;
-  private final Map<Long, Data> packets = new HashMap<>();
-  private final List<Object> observers = new ArrayList<>();
-  private Exception exception;
+  private final Map<Long, Data> packets = new TreeMap<>(); // iterated in segment order
+  private final Data[] ring;
+  private int buffered = 0;
+  private final Object observersLock = new Object();
+  private volatile OnData[] dataObservers = new OnData[0];
+  private volatile OnComplete[] completeObservers = new OnComplete[0];
+  private volatile OnException[] exceptionObservers = new OnException[0];
+  private volatile OnTimeout[] timeoutObservers = new OnTimeout[0];
+  private volatile Exception exception;
+  private boolean delivering = false;
+  private boolean completed = false;
+
+  /**
+   * Build a stream keeping all packets for assembly
+   */
+  public SegmentedDataStream() {
+    this.ring = null;
+  }
+
+  /**
+   * Build a stream in streaming mode; packets are released once observed so
+   * the stream cannot be assembled.
+   *
+   * @param windowCapacity the maximum number of segments received ahead of
+   * the last segment observed in order
+   */
+  public SegmentedDataStream(int windowCapacity) {
+    if (windowCapacity < 1) {
+      throw new IllegalArgumentException("The window must hold at least one segment: " + windowCapacity);
+    }
+    this.ring = new Data[windowCapacity];
+  }
 
   @Override
   public boolean isComplete() {
@@ -75,126 +118,269 @@ public class SegmentedDataStream implements DataStream {
     return current;
   }
 
+  /**
+   * @return true if packets are released once observed
+   */
+  public boolean isStreaming() {
+    return ring != null;
+  }
+
+  /**
+   * @return the highest segment number the stream can accept, i.e. the
+   * maximum segment a fetcher should request; unbounded unless streaming
+   */
+  public long windowLimit() {
+    return isStreaming() ? current + ring.length : Long.MAX_VALUE;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The packets are listed in segment order. In streaming mode, this only
+   * lists the packets received out of order.
+   */
   @Override
-  public Data[] list() {
+  public synchronized Data[] list() {
+    if (isStreaming()) {
+      List<Data> list = new ArrayList<>(buffered);
+      for (long id = current + 1; id <= windowLimit() && list.size() < buffered; id++) {
+        Data data = ring[slot(id)];
+        if (data != null) {
+          list.add(data);
+        }
+      }
+      return list.toArray(new Data[list.size()]);
+    }
     return packets.values().toArray(new Data[]{});
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @throws StreamException if assembly fails or if the stream is streaming,
+   * since observed packets are released
+   */
   @Override
   public Data assemble() throws StreamException {
     if (isCompletedExceptionally()) {
       throw new StreamException(exception);
     }
+    if (isStreaming()) {
+      throw new StreamException("Packets of a streaming stream are released once observed and cannot be assembled");
+    }
 
     return new DataAssembler(list(), PARTITION_MARKER).assemble();
   }
 
+  /**
+   * Assemble the content of the stream without copying it; unlike
+   * {@link #assemble()}, this is not limited to 2GB.
+   *
+   * @return a read-only view of the concatenated content of all packets
+   * @throws StreamException if the stream failed or is streaming, since
+   * observed packets are released
+   */
+  public CompositeContent assembleView() throws StreamException {
+    if (isCompletedExceptionally()) {
+      throw new StreamException(exception);
+    }
+    if (isStreaming()) {
+      throw new StreamException("Packets of a streaming stream are released once observed and cannot be assembled");
+    }
+
+    return new DataAssembler(list(), PARTITION_MARKER).assembleView();
+  }
+
   @Override
   public void observe(OnData onData) {
-    observers.add(onData);
+    synchronized (observersLock) {
+      dataObservers = append(dataObservers, onData);
+    }
   }
 
   @Override
   public void observe(OnComplete onComplete) {
-    observers.add(onComplete);
+    synchronized (observersLock) {
+      completeObservers = append(completeObservers, onComplete);
+    }
   }
 
   @Override
   public void observe(OnException onException) {
-    observers.add(onException);
+    synchronized (observersLock) {
+      exceptionObservers = append(exceptionObservers, onException);
+    }
   }
 
   @Override
   public void observe(OnTimeout onTimeout) {
-    observers.add(onTimeout);
+    synchronized (observersLock) {
+      timeoutObservers = append(timeoutObservers, onTimeout);
+    }
+  }
+
+  private static <T> T[] append(T[] observers, T observer) {
+    T[] copy = Arrays.copyOf(observers, observers.length + 1);
+    copy[observers.length] = observer;
+    return copy;
   }
 
   @Override
-  public synchronized void onData(Interest interest, Data data) {
+  public void onData(Interest interest, Data data) {
     logger.info("Data received: " + data.getName().toUri());
-    long id;
 
+    try {
+      synchronized (this) {
+        if (!accept(data) || delivering) {
+          return;
+        }
+        delivering = true;
+      }
+    } catch (EncodingException | StreamException ex) {
+      onException(ex);
+      return;
+    }
+
+    // call data observers, in order, outside of the monitor; an observer
+    // failure is reported to the exception observers and does not stop the
+    // other observers, delivery or completion
+    boolean drained = false;
+    try {
+      while (true) {
+        Data retrieved;
+        synchronized (this) {
+          if (!hasNextPacket()) {
+            delivering = false;
+            drained = true;
+            break;
+          }
+          current++;
+          retrieved = release(current);
+        }
+        for (OnData observer : dataObservers) {
+          try {
+            observer.onData(interest, retrieved);
+          } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Data observer failed on: " + retrieved.getName().toUri(), e);
+            onException(e);
+          }
+        }
+      }
+    } finally {
+      if (!drained) {
+        synchronized (this) {
+          delivering = false;
+        }
+      }
+    }
+
+    // call completion observers
+    boolean completing;
+    synchronized (this) {
+      completing = isComplete() && !completed;
+      completed |= completing;
+    }
+    if (completing) {
+      onComplete();
+    }
+  }
+
+  /**
+   * Store a packet until it can be delivered in order.
+   *
+   * @param data the received packet
+   * @return true if the packet is stored, false if it was already delivered
+   * @throws EncodingException if the segment number cannot be decoded
+   * @throws StreamException if the packet does not fit the stream window
+   */
+  private boolean accept(Data data) throws EncodingException, StreamException {
     // no segment component
-    if (!SegmentationHelper.isSegmented(data.getName(), PARTITION_MARKER) && packets.size() == 0) {
-      id = 0;
-      packets.put(id, data);
+    if (!SegmentationHelper.isSegmented(data.getName(), PARTITION_MARKER) && isEmpty()) {
+      store(0, data);
 
       // mark processing complete if the first packet has no segment component
       end = 0;
-    } // with segment component
-    else {
-      Name.Component lastComponent = data.getName().get(-1);
-      try {
-        id = lastComponent.toNumberWithMarker(PARTITION_MARKER);
-        packets.put(id, data);
-      } catch (EncodingException ex) {
-        onException(ex);
-        return;
-      }
+      return true;
     }
 
-    if (hasFinalBlockId(data)) {
-      try {
-        end = data.getMetaInfo().getFinalBlockId().toNumberWithMarker(PARTITION_MARKER);
-      } catch (EncodingException ex) {
-        onException(ex);
-      }
+    // with segment component
+    long id = data.getName().get(-1).toNumberWithMarker(PARTITION_MARKER);
+    if (isStreaming() && id <= current) {
+      logger.fine("Ignoring segment already observed: " + data.getName().toUri());
+      return false;
     }
-
-    // call data observers
-    if (isNextPacket(id)) {
-      do {
-        current++;
-        assert (packets.containsKey(current));
-        Data retrieved = packets.get(current);
-        observersOfType(OnData.class).forEach((OnData cb) -> {
-          cb.onData(interest, retrieved);
-        });
-      } while (hasNextPacket());
+    if (id > windowLimit()) {
+      throw new StreamException("Segment " + id + " is beyond the stream window ending at " + windowLimit());
     }
+    store(id, data);
 
-    // call completion observers
-    if (isComplete()) {
-      onComplete();
+    if (hasFinalBlockId(data)) {
+      end = data.getMetaInfo().getFinalBlockId().toNumberWithMarker(PARTITION_MARKER);
     }
+    return true;
   }
 
   private boolean hasFinalBlockId(Data data) {
     return data.getMetaInfo().getFinalBlockId().getValue().size() > 0;
   }
 
-  private boolean isNextPacket(long id) {
-    return current + 1 == id;
+  private boolean hasNextPacket() {
+    return isStreaming() ? ring[slot(current + 1)] != null : packets.containsKey(current + 1);
   }
 
-  private boolean hasNextPacket() {
-    return packets.containsKey(current + 1);
+  private boolean isEmpty() {
+    return isStreaming() ? current == -1 && buffered == 0 : packets.isEmpty();
+  }
+
+  private int slot(long id) {
+    return (int) (id % ring.length);
+  }
+
+  private void store(long id, Data data) {
+    if (isStreaming()) {
+      if (ring[slot(id)] == null) {
+        buffered++;
+      }
+      ring[slot(id)] = data;
+    } else {
+      packets.put(id, data);
+    }
+  }
+
+  /**
+   * @param id the segment number of the next packet in order
+   * @return the packet, released from the ring in streaming mode
+   */
+  private Data release(long id) {
+    if (!isStreaming()) {
+      return packets.get(id);
+    }
+    Data data = ring[slot(id)];
+    ring[slot(id)] = null;
+    buffered--;
+    return data;
   }
 
   @Override
-  public synchronized void onComplete() {
-    observersOfType(OnComplete.class).forEach((OnComplete cb) -> {
-      cb.onComplete();
-    });
+  public void onComplete() {
+    for (OnComplete observer : completeObservers) {
+      observer.onComplete();
+    }
   }
 
   @Override
-  public synchronized void onTimeout(Interest interest) {
-    observersOfType(OnTimeout.class).forEach((OnTimeout cb) -> {
-      cb.onTimeout(interest);
-    });
+  public void onTimeout(Interest interest) {
+    for (OnTimeout observer : timeoutObservers) {
+      observer.onTimeout(interest);
+    }
   }
 
   @Override
-  public synchronized void onException(Exception exception) {
+  public void onException(Exception exception) {
     this.exception = exception;
 
-    observersOfType(OnException.class).forEach((OnException cb) -> {
-      cb.onException(exception);
-    });
-  }
-
-  private <T> List<T> observersOfType(Class<T> type) {
-    return observers.stream().filter((Object o) -> type.isAssignableFrom(o.getClass())).map((o) -> (T) o).collect(Collectors.toList());
+    for (OnException observer : exceptionObservers) {
+      observer.onException(exception);
+    }
   }
 }
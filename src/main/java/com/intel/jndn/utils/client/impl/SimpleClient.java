@@ -14,6 +14,7 @@
 package com.intel.jndn.utils.client.impl;
 
 import com.intel.jndn.utils.Client;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -25,6 +26,7 @@ import net.named_data.jndn.encoding.EncodingException;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -38,6 +40,8 @@ public class SimpleClient implements Client {
 
   public static final long DEFAULT_SLEEP_TIME = 20;
   public static final long DEFAULT_TIMEOUT = 2000;
+  private static final long DEFAULT_INTEREST_LIFETIME = 4000; // the NDN default when an Interest sets none
+  private static final long REACTOR_WAIT_MARGIN = 1000;
   private static final Logger logger = Logger.getLogger(SimpleClient.class.getName());
   private static SimpleClient defaultInstance;
   private final long sleepTime;
@@ -82,27 +86,31 @@ public class SimpleClient implements Client {
   @Override
   public CompletableFuture<Data> getAsync(Face face, Interest interest) {
     final CompletableFuture futureData = new CompletableFuture<>();
+    FaceReactor reactor = FaceReactor.forFace(face);
+    if (reactor != null) {
+      reactor.track(futureData); // fail the request if the reactor closes first
+    }
 
-    // send interest
+    // send interest; the face may be owned by a FaceReactor
     logger.log(Level.FINER, "Sending interest for: " + interest.getName().toUri());
-    try {
-      face.expressInterest(interest, new OnData() {
-        @Override
-        public void onData(Interest interest, Data data) {
-          logger.log(Level.FINER, "Retrieved data: " + data.getName().toUri());
-          futureData.complete(data);
-        }
-      }, new OnTimeout() {
-        @Override
-        public void onTimeout(Interest interest) {
-          String message = interest.getInterestLifetimeMilliseconds() + "ms timeout exceeded";
-          futureData.completeExceptionally(new TimeoutException(message));
-        }
-      });
-    } catch (IOException e) {
-      logger.log(Level.FINE, "IO failure while sending interest: ", e);
-      futureData.completeExceptionally(e);
-    }
+    FaceReactor.call(face, f -> f.expressInterest(interest, new OnData() {
+      @Override
+      public void onData(Interest interest, Data data) {
+        logger.log(Level.FINER, "Retrieved data: " + data.getName().toUri());
+        futureData.complete(data);
+      }
+    }, new OnTimeout() {
+      @Override
+      public void onTimeout(Interest interest) {
+        String message = interest.getInterestLifetimeMilliseconds() + "ms timeout exceeded";
+        futureData.completeExceptionally(new TimeoutException(message));
+      }
+    })).whenComplete((id, e) -> {
+      if (e != null) {
+        logger.log(Level.FINE, "IO failure while sending interest: ", e);
+        futureData.completeExceptionally(e);
+      }
+    });
 
     return futureData;
   }
@@ -117,11 +125,39 @@ public class SimpleClient implements Client {
 
   /**
    * {@inheritDoc}
+   * <p>
+   * If a {@link FaceReactor} is running for the face, this blocks on the
+   * future completed by the reactor instead of processing events and sleeping,
+   * for at most the Interest lifetime plus a margin. It fails immediately when
+   * called from the reactor thread (e.g. from a callback), which would
+   * otherwise wait for itself.
    */
   @Override
   public Data getSync(Face face, Interest interest) throws IOException {
+    FaceReactor reactor = FaceReactor.forFace(face);
+    if (reactor != null && reactor.isReactorThread()) {
+      throw new IOException("Cannot block the reactor thread of the face; use getAsync from callbacks.");
+    }
+
     CompletableFuture<Data> future = getAsync(face, interest);
 
+    if (reactor != null) {
+      double lifetime = interest.getInterestLifetimeMilliseconds();
+      long wait = (lifetime >= 0 ? (long) lifetime : DEFAULT_INTEREST_LIFETIME) + REACTOR_WAIT_MARGIN;
+      try {
+        return future.get(wait, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while retrieving data.", e);
+      } catch (ExecutionException e) {
+        logger.log(Level.FINE, "Failed to retrieve data.", e);
+        throw new IOException("Failed to retrieve data.", e);
+      } catch (TimeoutException e) {
+        future.completeExceptionally(e);
+        throw new IOException("No response after waiting " + wait + "ms for data.", e);
+      }
+    }
+
     try {
       // process events until complete
       while (!future.isDone()) {
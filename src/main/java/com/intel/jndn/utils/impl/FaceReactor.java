@@ -0,0 +1,353 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.ForwardingFlags;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnInterestCallback;
+import net.named_data.jndn.OnRegisterFailed;
+import net.named_data.jndn.OnTimeout;
+import net.named_data.jndn.encoding.EncodingException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Own a {@link Face} and serialize all access to it on a single thread: the
+ * reactor thread drives {@link Face#processEvents()} and runs the tasks
+ * (expressing Interests, putting Data, registering prefixes...) submitted from
+ * any thread through a lock-free queue. Clients, servers and pub-sub components
+ * can then share one face without contending on its monitor; callbacks run on
+ * the reactor thread and may use the face directly.
+ * <p>
+ * At most one reactor runs per face; components in this library look it up
+ * with {@link #forFace(Face)} (see {@link #call(Face, FaceCall)}) and fall back
+ * to synchronizing on the face when none is running. Once a reactor is started,
+ * other code must not use the face outside of reactor tasks and callbacks.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class FaceReactor implements Closeable {
+
+  public static final long DEFAULT_POLL_INTERVAL_MICROS = 100;
+  private static final Logger logger = Logger.getLogger(FaceReactor.class.getName());
+  private static final Map<Face, FaceReactor> reactors = new ConcurrentHashMap<>();
+  private final Face face;
+  private final long pollIntervalNanos;
+  private final Thread thread;
+  private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+  private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+  private volatile boolean stopped = false;
+
+  /**
+   * An operation on a {@link Face}
+   *
+   * @param <T> the result of the operation
+   */
+  @FunctionalInterface
+  public interface FaceCall<T> {
+    /**
+     * @param face the {@link Face} to use
+     * @return the result of the operation
+     * @throws Exception if the operation fails
+     */
+    T call(Face face) throws Exception;
+  }
+
+  private FaceReactor(Face face, long pollIntervalMicros) {
+    this.face = face;
+    this.pollIntervalNanos = TimeUnit.MICROSECONDS.toNanos(pollIntervalMicros);
+    this.thread = new Thread(this::run, "face-reactor");
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Start a reactor for a face with the {@link #DEFAULT_POLL_INTERVAL_MICROS}.
+   *
+   * @param face the {@link Face} to own
+   * @return the running reactor; close it to stop processing
+   * @throws IllegalStateException if a reactor is already running for the face
+   */
+  public static FaceReactor start(Face face) {
+    return start(face, DEFAULT_POLL_INTERVAL_MICROS);
+  }
+
+  /**
+   * Start a reactor for a face.
+   *
+   * @param face the {@link Face} to own
+   * @param pollIntervalMicros the time to wait between calls to
+   * {@link Face#processEvents()} when no tasks are queued, bounding the added
+   * latency of each incoming packet
+   * @return the running reactor; close it to stop processing
+   * @throws IllegalStateException if a reactor is already running for the face
+   */
+  public static FaceReactor start(Face face, long pollIntervalMicros) {
+    FaceReactor reactor = new FaceReactor(face, pollIntervalMicros);
+    if (reactors.putIfAbsent(face, reactor) != null) {
+      throw new IllegalStateException("A reactor is already running for this face");
+    }
+    reactor.thread.start();
+    return reactor;
+  }
+
+  /**
+   * @param face a {@link Face}
+   * @return the reactor owning the face or null if none is running
+   */
+  public static FaceReactor forFace(Face face) {
+    return reactors.get(face);
+  }
+
+  /**
+   * Run an operation on a face: through its reactor if one is running,
+   * otherwise immediately on the calling thread while holding the face monitor.
+   *
+   * @param face the {@link Face} to use
+   * @param call the operation to run
+   * @param <T> the result of the operation
+   * @return a future completing with the result of the operation
+   */
+  public static <T> CompletableFuture<T> call(Face face, FaceCall<T> call) {
+    FaceReactor reactor = forFace(face);
+    if (reactor != null) {
+      return reactor.submit(call);
+    }
+
+    CompletableFuture<T> future = new CompletableFuture<>();
+    synchronized (face) {
+      complete(future, face, call);
+    }
+    return future;
+  }
+
+  /**
+   * Wait for the result of an operation submitted to a reactor.
+   *
+   * @param future the future result of the operation
+   * @param <T> the result of the operation
+   * @return the result of the operation
+   * @throws IOException if the operation fails or the wait is interrupted
+   */
+  public static <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the face.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to use the face.", e.getCause());
+    }
+  }
+
+  /**
+   * @return the {@link Face} owned by this reactor
+   */
+  public Face getFace() {
+    return face;
+  }
+
+  /**
+   * @return true until the reactor is closed
+   */
+  public boolean isRunning() {
+    return !stopped;
+  }
+
+  /**
+   * @return true if called from the reactor thread, e.g. from a callback; such
+   * callers must not block on futures completed by the reactor
+   */
+  public boolean isReactorThread() {
+    return Thread.currentThread() == thread;
+  }
+
+  /**
+   * Fail a future when this reactor is closed before it completes, e.g. the
+   * future of a reply to an expressed Interest, which the reactor would
+   * otherwise never complete; the future is forgotten once it completes.
+   *
+   * @param future the future to track
+   */
+  public void track(CompletableFuture<?> future) {
+    pending.add(future);
+    future.whenComplete((result, e) -> pending.remove(future));
+    if (stopped) {
+      failPending();
+    }
+  }
+
+  /**
+   * Run an operation on the reactor thread; when called from the reactor
+   * thread (e.g. from a callback), the operation runs immediately.
+   *
+   * @param call the operation to run
+   * @param <T> the result of the operation
+   * @return a future completing with the result of the operation, or
+   * exceptionally if the operation fails or the reactor is closed
+   */
+  public <T> CompletableFuture<T> submit(FaceCall<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    if (Thread.currentThread() == thread) {
+      complete(future, face, call);
+      return future;
+    }
+
+    Task<T> task = new Task<>(call, future);
+    tasks.add(task);
+    if (stopped && tasks.remove(task)) {
+      future.completeExceptionally(new IllegalStateException("The reactor is closed"));
+    }
+    LockSupport.unpark(thread);
+    return future;
+  }
+
+  /**
+   * @param interest the {@link Interest} to express
+   * @param onData the callback fired on the reactor thread when Data arrives
+   * @param onTimeout the callback fired on the reactor thread on timeout
+   * @return a future completing with the pending Interest ID
+   * @see Face#expressInterest(Interest, OnData, OnTimeout)
+   */
+  public CompletableFuture<Long> expressInterest(Interest interest, OnData onData, OnTimeout onTimeout) {
+    return submit(f -> f.expressInterest(interest, onData, onTimeout));
+  }
+
+  /**
+   * @param data the {@link Data} to send
+   * @return a future completing once the packet is sent
+   * @see Face#putData(Data)
+   */
+  public CompletableFuture<Void> putData(Data data) {
+    return submit(f -> {
+      f.putData(data);
+      return null;
+    });
+  }
+
+  /**
+   * @param prefix the {@link Name} prefix to register
+   * @param onInterest the callback fired on the reactor thread for each Interest
+   * @param onRegisterFailed the callback fired on the reactor thread if the
+   * registration fails
+   * @return a future completing with the registered prefix ID
+   * @see Face#registerPrefix(Name, OnInterestCallback, OnRegisterFailed, ForwardingFlags)
+   */
+  public CompletableFuture<Long> registerPrefix(Name prefix, OnInterestCallback onInterest, OnRegisterFailed onRegisterFailed) {
+    return submit(f -> f.registerPrefix(prefix, onInterest, onRegisterFailed, new ForwardingFlags()));
+  }
+
+  /**
+   * Stop the reactor; queued tasks not yet run and tracked futures (see
+   * {@link #track(CompletableFuture)}) complete exceptionally. This waits for
+   * the reactor thread to finish unless called from the reactor thread itself.
+   */
+  @Override
+  public void close() {
+    stopped = true;
+    reactors.remove(face, this);
+    LockSupport.unpark(thread);
+    if (Thread.currentThread() != thread) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    failRemainingTasks();
+    failPending();
+  }
+
+  private void run() {
+    while (!stopped) {
+      Task<?> task;
+      while ((task = tasks.poll()) != null) {
+        task.run(face);
+      }
+
+      try {
+        face.processEvents();
+      } catch (IOException ex) {
+        logger.log(Level.SEVERE, "Failed to process events.", ex);
+      } catch (EncodingException ex) {
+        logger.log(Level.SEVERE, "Failed to parse bytes.", ex);
+      } catch (RuntimeException ex) {
+        logger.log(Level.SEVERE, "Event callback failed.", ex);
+      }
+
+      if (tasks.isEmpty()) {
+        LockSupport.parkNanos(pollIntervalNanos);
+      }
+    }
+    failRemainingTasks();
+  }
+
+  private void failRemainingTasks() {
+    Task<?> task;
+    while ((task = tasks.poll()) != null) {
+      task.future.completeExceptionally(new IllegalStateException("The reactor is closed"));
+    }
+  }
+
+  private void failPending() {
+    for (CompletableFuture<?> future : pending) {
+      future.completeExceptionally(new IllegalStateException("The reactor is closed"));
+    }
+  }
+
+  private static <T> void complete(CompletableFuture<T> future, Face face, FaceCall<T> call) {
+    try {
+      future.complete(call.call(face));
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Helper data structure: a queued operation and its result
+   */
+  private static class Task<T> {
+
+    final FaceCall<T> call;
+    final CompletableFuture<T> future;
+
+    Task(FaceCall<T> call, CompletableFuture<T> future) {
+      this.call = call;
+      this.future = future;
+    }
+
+    void run(Face face) {
+      complete(future, face, call);
+    }
+  }
+}
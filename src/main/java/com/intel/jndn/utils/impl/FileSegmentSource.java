@@ -0,0 +1,180 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Produce the segments of a file on demand: the file is memory-mapped and the
+ * content of each segment is a read-only slice of the mapping, so the file is
+ * never loaded into the heap. The segment count follows from the file size; an
+ * empty file has a single, empty segment. The file must not change while
+ * mapped.
+ * <p>
+ * Segments may also be named by byte offset (marker 0xFB) with
+ * {@link #getSegmentAtOffset(long)}, letting consumers read from any position
+ * of the file; as for {@link SegmentationHelper#segmentAtOffset(Data, ByteBuffer, long, int)},
+ * only the packet holding the last byte carries a FinalBlockId.
+ * <p>
+ * Files larger than 2GB are mapped in several regions, each holding a whole
+ * number of segments.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class FileSegmentSource implements Closeable {
+
+  private static final byte NDN_SEGMENT_MARKER = 0x00;
+  private final Data template;
+  private final int segmentSize;
+  private final long size;
+  private final long segmentCount;
+  private final long regionSize;
+  private final MappedByteBuffer[] regions;
+  private final Name.Component finalBlockId;
+  private final FileChannel channel;
+
+  /**
+   * Segment a file with the {@link SegmentationHelper#DEFAULT_SEGMENT_SIZE}.
+   *
+   * @param file the file to segment
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @throws IOException if the file cannot be mapped
+   */
+  public FileSegmentSource(Path file, Data template) throws IOException {
+    this(file, template, SegmentationHelper.DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param file the file to segment
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param segmentSize the maximum number of content bytes per segment
+   * @throws IOException if the file cannot be mapped
+   */
+  public FileSegmentSource(Path file, Data template, int segmentSize) throws IOException {
+    this.template = new Data(template);
+    this.segmentSize = segmentSize;
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.segmentCount = Math.max(1, (size + segmentSize - 1) / segmentSize);
+    this.finalBlockId = Name.Component.fromNumberWithMarker(segmentCount - 1, NDN_SEGMENT_MARKER);
+
+    this.regionSize = (long) (Integer.MAX_VALUE / segmentSize) * segmentSize;
+    this.regions = new MappedByteBuffer[(int) Math.max(1, (size + regionSize - 1) / regionSize)];
+    for (int i = 0; i < regions.length; i++) {
+      long position = i * regionSize;
+      regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position));
+    }
+  }
+
+  /**
+   * @return the name of the segmented content, without a segment component
+   */
+  public Name getName() {
+    return template.getName();
+  }
+
+  /**
+   * @return the number of segments of the file
+   */
+  public long getSegmentCount() {
+    return segmentCount;
+  }
+
+  /**
+   * @return the size of the file in bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Build a segment; this is thread-safe.
+   *
+   * @param segmentNumber the number of the segment to build
+   * @return the segment, with its content sliced from the mapped file
+   * @throws IndexOutOfBoundsException if the segment number is not within the
+   * segment count
+   */
+  public Data getSegment(long segmentNumber) {
+    if (segmentNumber < 0 || segmentNumber >= segmentCount) {
+      throw new IndexOutOfBoundsException("No segment " + segmentNumber + " in " + segmentCount + " segments");
+    }
+
+    Data segment = new Data(template);
+    segment.getName().appendSegment(segmentNumber);
+    segment.getMetaInfo().setFinalBlockId(finalBlockId);
+    segment.setContent(new Blob(slice(segmentNumber * segmentSize), false));
+    return segment;
+  }
+
+  /**
+   * Build the segment starting at any byte offset; this is thread-safe. The
+   * content of a segment starting within a segment size of a 2GB mapping
+   * boundary ends at the boundary; the next packet of a sequential read starts
+   * at the offset plus the content size.
+   *
+   * @param offset the offset of the first byte of the segment
+   * @return the segment named by byte offset, with its content sliced from the
+   * mapped file
+   * @throws IndexOutOfBoundsException if the offset is not within the file (an
+   * empty file only has offset 0)
+   */
+  public Data getSegmentAtOffset(long offset) {
+    if (offset < 0 || offset >= Math.max(size, 1)) {
+      throw new IndexOutOfBoundsException("No offset " + offset + " in " + size + " bytes");
+    }
+
+    ByteBuffer content = slice(offset);
+    Data segment = new Data(template);
+    segment.getName().appendSegmentOffset(offset);
+    segment.getMetaInfo().setFinalBlockId(offset + content.remaining() == size ? segment.getName().get(-1) : new Name.Component());
+    segment.setContent(new Blob(content, false));
+    return segment;
+  }
+
+  /**
+   * @param offset the offset in the file of the first byte
+   * @return a read-only view of up to one segment of the mapped file
+   */
+  private ByteBuffer slice(long offset) {
+    ByteBuffer slice = regions[(int) (offset / regionSize)].asReadOnlyBuffer();
+    int position = (int) (offset % regionSize);
+    slice.position(position);
+    slice.limit((int) Math.min((long) position + segmentSize, slice.capacity()));
+    return slice.slice();
+  }
+
+  /**
+   * Close the file; segments already built keep their mapped content.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
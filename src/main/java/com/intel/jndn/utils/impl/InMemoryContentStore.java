@@ -16,13 +16,13 @@ package com.intel.jndn.utils.impl;
 
 import com.intel.jndn.utils.ContentStore;
 import com.intel.jndn.utils.NameTree;
+import com.intel.jndn.utils.SegmentSizePolicy;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.util.Blob;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,8 +39,18 @@ public class InMemoryContentStore implements ContentStore {
   private static final Logger LOGGER = Logger.getLogger(InMemoryContentStore.class.getName());
   private final NameTree<Blob> store;
   private final Data template;
+  private final SegmentSizePolicy segmentSizePolicy;
 
   public InMemoryContentStore(int freshnessMs) {
+    this(freshnessMs, SegmentSizePolicy.fixed(SegmentationHelper.DEFAULT_SEGMENT_SIZE));
+  }
+
+  /**
+   * @param freshnessMs the freshness period of the pushed packets
+   * @param segmentSizePolicy the policy deciding the content size of the pushed segments
+   */
+  public InMemoryContentStore(int freshnessMs, SegmentSizePolicy segmentSizePolicy) {
+    this.segmentSizePolicy = segmentSizePolicy;
     this.template = new Data();
     this.template.getMetaInfo().setFreshnessPeriod(freshnessMs);
     this.store = DefaultNameTree.newRootTree();
@@ -114,8 +124,7 @@ public class InMemoryContentStore implements ContentStore {
     if (blob.isPresent()) {
       Data t = new Data(template);
       t.setName(name);
-      ByteArrayInputStream b = new ByteArrayInputStream(blob.get().getImmutableArray());
-      for (Data d : SegmentationHelper.segment(t, b)) {
+      for (Data d : SegmentationHelper.segment(t, blob.get(), segmentSizePolicy.segmentSize(t))) {
         face.putData(d);
       }
     }
@@ -127,8 +136,7 @@ public class InMemoryContentStore implements ContentStore {
     if (leaf.isPresent() && leaf.get().content().isPresent()) {
       Data t = new Data(template);
       t.setName(leaf.get().fullName());
-      ByteArrayInputStream b = new ByteArrayInputStream(leaf.get().content().get().getImmutableArray());
-      for (Data d : SegmentationHelper.segment(t, b)) {
+      for (Data d : SegmentationHelper.segment(t, leaf.get().content().get(), segmentSizePolicy.segmentSize(t))) {
         face.putData(d);
       }
     }
@@ -0,0 +1,143 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.DigestSha256Signature;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.util.Blob;
+import net.named_data.jndn.util.Common;
+import net.named_data.jndn.util.SignedBlob;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper methods for manifest-based segmentation: instead of signing every
+ * segment with an asymmetric key, segments carry only a SHA-256 digest
+ * signature and one or a few signed manifest packets list the implicit digest
+ * (the SHA-256 of the full wire encoding) of each segment. A consumer verifies
+ * the manifests once and then checks each segment by hash.
+ * <p>
+ * The manifests of an object named /a/b are named /a/b/_manifest/[segment],
+ * each listing the 32-byte digests of consecutive segments of /a/b; the last
+ * manifest carries the FinalBlockId.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ManifestHelper {
+
+  public static final Name.Component MANIFEST_COMPONENT = new Name.Component("_manifest");
+  public static final int DIGEST_SIZE = 32;
+  public static final int DEFAULT_DIGESTS_PER_MANIFEST = SegmentationHelper.DEFAULT_SEGMENT_SIZE / DIGEST_SIZE;
+
+  private ManifestHelper() {
+    // do not instantiate this class
+  }
+
+  /**
+   * @param objectName the name of the segmented object
+   * @return the name prefix of the manifests of the object
+   */
+  public static Name manifestName(Name objectName) {
+    return new Name(objectName).append(MANIFEST_COMPONENT);
+  }
+
+  /**
+   * Sign a packet with a SHA-256 digest only; this is orders of magnitude
+   * cheaper than an asymmetric signature and lets the packet be checked against
+   * a manifest.
+   *
+   * @param data the packet to sign, modified in place
+   * @return the signed packet
+   */
+  public static Data signWithDigest(Data data) {
+    data.setSignature(new DigestSha256Signature());
+    SignedBlob encoding = data.wireEncode();
+    data.getSignature().setSignature(new Blob(Common.digestSha256(encoding.signedBuf())));
+    data.wireEncode();
+    return data;
+  }
+
+  /**
+   * @param data a packet in its final, signed form
+   * @return the implicit SHA-256 digest of the full wire encoding of the packet
+   */
+  public static Blob digest(Data data) {
+    return new Blob(Common.digestSha256(data.wireEncode().buf()));
+  }
+
+  /**
+   * Build the manifests listing the digests of the segments of an object; the
+   * manifests are not signed, e.g. run them through a signing stage.
+   *
+   * @param template the {@link Data} packet to use for the manifest {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.; its name is the name of the segmented object
+   * @param segments the segments of the object, in order and in their final,
+   * signed form
+   * @param digestsPerManifest the maximum number of digests listed in each
+   * manifest
+   * @return the manifests, in order
+   */
+  public static List<Data> buildManifests(Data template, List<Data> segments, int digestsPerManifest) {
+    int numManifests = Math.max(1, (int) Math.ceil((double) segments.size() / digestsPerManifest));
+    Name.Component lastManifest = Name.Component.fromSegment(numManifests - 1);
+    List<Data> manifests = new ArrayList<>(numManifests);
+
+    for (int i = 0; i < numManifests; i++) {
+      int from = i * digestsPerManifest;
+      int to = Math.min(from + digestsPerManifest, segments.size());
+      ByteBuffer digests = ByteBuffer.allocate((to - from) * DIGEST_SIZE);
+      for (Data segment : segments.subList(from, to)) {
+        digests.put(digest(segment).buf());
+      }
+      digests.flip();
+
+      Data manifest = new Data(template);
+      manifest.setName(manifestName(template.getName()).appendSegment(i));
+      manifest.getMetaInfo().setFinalBlockId(lastManifest);
+      manifest.setContent(new Blob(digests, false));
+      manifests.add(manifest);
+    }
+
+    return manifests;
+  }
+
+  /**
+   * Parse the digests listed in a sequence of manifests.
+   *
+   * @param manifests the manifests of an object, in order
+   * @return the digests of the segments of the object, in segment order
+   * @throws EncodingException if a manifest content is not a list of digests
+   */
+  public static List<Blob> parseDigests(List<Data> manifests) throws EncodingException {
+    List<Blob> digests = new ArrayList<>();
+    for (Data manifest : manifests) {
+      ByteBuffer content = manifest.getContent().isNull() ? ByteBuffer.allocate(0) : manifest.getContent().buf();
+      if (content.remaining() % DIGEST_SIZE != 0) {
+        throw new EncodingException("Manifest content is not a list of digests: " + manifest.getName().toUri());
+      }
+      for (int position = content.position(); position < content.limit(); position += DIGEST_SIZE) {
+        ByteBuffer digest = content.duplicate();
+        digest.position(position);
+        digest.limit(position + DIGEST_SIZE);
+        digests.add(new Blob(digest, true));
+      }
+    }
+    return digests;
+  }
+}
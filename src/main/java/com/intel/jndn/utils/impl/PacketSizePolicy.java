@@ -0,0 +1,147 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import com.intel.jndn.utils.SegmentSizePolicy;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.SecurityException;
+import net.named_data.jndn.util.Blob;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size segments so that each encoded segment, once signed, fits a target
+ * packet size: the segment size is the target minus the encoded name, meta
+ * information and signature of the segment. Use a small target on links that
+ * would otherwise fragment packets (e.g. UDP faces) and a large target on local
+ * faces to reduce the per-packet overhead.
+ * <p>
+ * The overhead is measured by encoding the template with the largest possible
+ * segment component, so it holds for segment numbers and byte offsets alike.
+ * Since segments are signed after segmentation, the bytes added by signing are
+ * either estimated or, given the {@link KeyChain} and certificate used for
+ * signing, measured by signing an empty segment. The measurement is cached by
+ * encoded name length, the only part of the template that changes what a
+ * policy's certificate adds, so each name length is signed only once.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class PacketSizePolicy implements SegmentSizePolicy {
+
+  /**
+   * A packet size fitting a 1500-byte Ethernet MTU after the IPv6, UDP and
+   * NDNLP headers
+   */
+  public static final int ETHERNET_UDP_PACKET_SIZE = 1400;
+  /**
+   * The maximum NDN packet size
+   */
+  public static final int MAX_PACKET_SIZE = 8800;
+  /**
+   * The bytes added by a SHA-256 with RSA 2048 signature, as produced by default
+   * by {@link KeyChain}: a 256-byte value and a key locator name of up to 128
+   * bytes
+   */
+  public static final int DEFAULT_SIGNATURE_SIZE = 384;
+  private static final int TLV_LENGTH_SLACK = 8; // TLV lengths grow from 1 to 3 bytes once content is added
+  private final int targetPacketSize;
+  private final int signatureSize;
+  private final KeyChain keyChain;
+  private final Name certificateName;
+  private final Map<Integer, Integer> measuredSignatureSizes = new ConcurrentHashMap<>();
+
+  /**
+   * @param targetPacketSize the maximum size of an encoded segment
+   */
+  public PacketSizePolicy(int targetPacketSize) {
+    this(targetPacketSize, DEFAULT_SIGNATURE_SIZE);
+  }
+
+  /**
+   * @param targetPacketSize the maximum size of an encoded segment
+   * @param signatureSize the bytes added to each segment by signing: the
+   * signature value (e.g. 32 for a SHA-256 digest or 72 for an ECDSA signature)
+   * and the key locator
+   */
+  public PacketSizePolicy(int targetPacketSize, int signatureSize) {
+    this.targetPacketSize = targetPacketSize;
+    this.signatureSize = signatureSize;
+    this.keyChain = null;
+    this.certificateName = null;
+  }
+
+  /**
+   * @param targetPacketSize the maximum size of an encoded segment
+   * @param keyChain the {@link KeyChain} signing the segments
+   * @param certificateName the certificate signing the segments
+   */
+  public PacketSizePolicy(int targetPacketSize, KeyChain keyChain, Name certificateName) {
+    this.targetPacketSize = targetPacketSize;
+    this.signatureSize = 0;
+    this.keyChain = keyChain;
+    this.certificateName = certificateName;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalArgumentException if the template overhead alone exceeds the
+   * target packet size
+   */
+  @Override
+  public int segmentSize(Data template) {
+    int segmentSize = targetPacketSize - overhead(template);
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("The packet overhead exceeds the target packet size of " + targetPacketSize
+              + " bytes: " + template.getName().toUri());
+    }
+    return segmentSize;
+  }
+
+  /**
+   * @param template the {@link Data} packet being segmented
+   * @return the size of a signed segment without content
+   */
+  private int overhead(Data template) {
+    Data probe = new Data(template);
+    probe.getName().appendSegmentOffset(Long.MAX_VALUE);
+    probe.getMetaInfo().setFinalBlockId(probe.getName().get(-1));
+    probe.setContent(new Blob());
+    int unsignedSize = probe.wireEncode().size() - probe.getSignature().getSignature().size();
+    if (keyChain != null) {
+      int nameLength = probe.getName().wireEncode().size();
+      return unsignedSize + measuredSignatureSizes.computeIfAbsent(nameLength, n -> measureSignatureSize(probe, unsignedSize))
+              + TLV_LENGTH_SLACK;
+    }
+    return unsignedSize + signatureSize + TLV_LENGTH_SLACK;
+  }
+
+  /**
+   * @param probe an empty segment
+   * @param unsignedSize the size of the segment without a signature value
+   * @return the bytes added to the segment by signing it with the certificate
+   */
+  private int measureSignatureSize(Data probe, int unsignedSize) {
+    try {
+      keyChain.sign(probe, certificateName);
+    } catch (SecurityException e) {
+      throw new IllegalStateException("Failed to sign a segment to measure its size", e);
+    }
+    return probe.wireEncode().size() - unsignedSize;
+  }
+}
@@ -22,9 +22,12 @@ import net.named_data.jndn.util.Blob;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Helper methods for reading and writing segmented NDN packets. See <a
@@ -41,6 +44,7 @@ public class SegmentationHelper {
 
   public static final int DEFAULT_SEGMENT_SIZE = 4096;
   private static final byte NDN_SEGMENT_MARKER = 0x00;
+  private static final int READ_BUFFER_SIZE = 8192;
 
   private SegmentationHelper() {
     // do not instantiate this class
@@ -128,6 +132,180 @@ public class SegmentationHelper {
     return segments;
   }
 
+  /**
+   * Segment in-memory content into Data packets without copying: the content of
+   * each segment is a read-only slice of the original content.
+   *
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param content the bytes to segment
+   * @param segmentSize the maximum number of content bytes per segment
+   * @return a list of segmented {@link Data} packets
+   */
+  public static List<Data> segment(Data template, Blob content, int segmentSize) {
+    return segment(template, content.isNull() ? ByteBuffer.allocate(0) : content.buf(), segmentSize);
+  }
+
+  /**
+   * Segment in-memory content into Data packets without copying: the content of
+   * each segment is a read-only slice of the buffer; the buffer must not be
+   * modified afterwards.
+   *
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param content the bytes to segment, from its position to its limit
+   * @param segmentSize the maximum number of content bytes per segment
+   * @return a list of segmented {@link Data} packets
+   */
+  public static List<Data> segment(Data template, ByteBuffer content, int segmentSize) {
+    int numBytes = content.remaining();
+    int numPackets = (int) Math.ceil((double) numBytes / segmentSize);
+    List<Data> segments = new ArrayList<>(numPackets);
+    Name.Component lastSegment = Name.Component.fromNumberWithMarker((long) numPackets - 1, NDN_SEGMENT_MARKER);
+
+    for (int i = 0; i < numPackets; i++) {
+      ByteBuffer slice = content.asReadOnlyBuffer();
+      slice.position(content.position() + i * segmentSize);
+      slice.limit(Math.min(slice.position() + segmentSize, content.limit()));
+
+      Data segment = new Data(template);
+      segment.getName().appendSegment(i);
+      segment.getMetaInfo().setFinalBlockId(lastSegment);
+      segment.setContent(new Blob(slice.slice(), false));
+      segments.add(segment);
+    }
+
+    return segments;
+  }
+
+  /**
+   * Segment in-memory content into Data packets named by byte offset (marker
+   * 0xFB) instead of segment number, without copying. Since consumers may
+   * request any offset (see {@link #segmentAtOffset(Data, ByteBuffer, long, int)}),
+   * only the packet holding the last byte carries a FinalBlockId, equal to its
+   * own offset component.
+   *
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param content the bytes to segment, from its position to its limit
+   * @param segmentSize the maximum number of content bytes per segment
+   * @return a list of {@link Data} packets at offsets 0, segmentSize, 2 * segmentSize...
+   */
+  public static List<Data> segmentByOffset(Data template, ByteBuffer content, int segmentSize) {
+    int numBytes = content.remaining();
+    List<Data> segments = new ArrayList<>((int) Math.ceil((double) numBytes / segmentSize));
+    for (long offset = 0; offset < numBytes; offset += segmentSize) {
+      segments.add(segmentAtOffset(template, content, offset, segmentSize));
+    }
+    return segments;
+  }
+
+  /**
+   * Build the Data packet holding up to one segment of content starting at any
+   * byte offset, named with the offset (marker 0xFB); the content is a
+   * read-only slice of the buffer. The packet holding the last byte carries a
+   * FinalBlockId equal to its own offset component; the next packet of a
+   * sequential read starts at the offset plus the content size.
+   *
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param content the bytes to segment, from its position to its limit
+   * @param offset the offset of the first byte of the packet, relative to the
+   * position of the content
+   * @param segmentSize the maximum number of content bytes per segment
+   * @return the {@link Data} packet at the offset
+   * @throws IndexOutOfBoundsException if the offset is not within the content
+   * (an empty content only has offset 0)
+   */
+  public static Data segmentAtOffset(Data template, ByteBuffer content, long offset, int segmentSize) {
+    int numBytes = content.remaining();
+    if (offset < 0 || offset >= Math.max(numBytes, 1)) {
+      throw new IndexOutOfBoundsException("No offset " + offset + " in " + numBytes + " bytes");
+    }
+
+    ByteBuffer slice = content.asReadOnlyBuffer();
+    slice.position(content.position() + (int) offset);
+    slice.limit((int) Math.min(slice.position() + (long) segmentSize, content.limit()));
+
+    Data segment = new Data(template);
+    segment.getName().appendSegmentOffset(offset);
+    segment.getMetaInfo().setFinalBlockId(slice.limit() == content.limit() ? segment.getName().get(-1) : new Name.Component());
+    segment.setContent(new Blob(slice.slice(), false));
+    return segment;
+  }
+
+  /**
+   * Lazily segment a stream of bytes into Data packets; the stream is read in
+   * bulk, one segment ahead of the segment returned, so memory use is bounded
+   * by two segments regardless of the stream length. Since the end of the
+   * stream is only known when reached, only the last segment carries a
+   * FinalBlockId. The stream is closed once exhausted.
+   *
+   * @param template the {@link Data} packet to use for the segment {@link Name}, {@link net.named_data.jndn.MetaInfo},
+   * etc.
+   * @param bytes an {@link InputStream} to the bytes to segment
+   * @param segmentSize the maximum number of content bytes per segment
+   * @return an iterator of segmented {@link Data} packets; its methods throw
+   * {@link UncheckedIOException} if the stream fails
+   */
+  public static Iterator<Data> segmentLazily(Data template, InputStream bytes, int segmentSize) {
+    return new Iterator<Data>() {
+      private long segmentNumber = 0;
+      private byte[] next = readSegment(bytes, segmentSize);
+
+      @Override
+      public boolean hasNext() {
+        return next.length > 0;
+      }
+
+      @Override
+      public Data next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        Data segment = new Data(template);
+        segment.getName().appendSegment(segmentNumber);
+        segment.setContent(new Blob(next, false));
+        next = next.length < segmentSize ? new byte[0] : readSegment(bytes, segmentSize);
+        if (!hasNext()) {
+          segment.getMetaInfo().setFinalBlockId(Name.Component.fromNumberWithMarker(segmentNumber, NDN_SEGMENT_MARKER));
+        }
+        segmentNumber++;
+        return segment;
+      }
+    };
+  }
+
+  /**
+   * Read up to one segment of bytes, blocking until the segment is full or the
+   * stream ends; the stream is closed when it ends.
+   *
+   * @param bytes the {@link InputStream} of bytes to read
+   * @param segmentSize the maximum number of bytes to read
+   * @return the bytes read, shorter than the segment size only at the end of
+   * the stream
+   */
+  private static byte[] readSegment(InputStream bytes, int segmentSize) {
+    try {
+      byte[] segment = new byte[segmentSize];
+      int length = 0;
+      while (length < segmentSize) {
+        int read = bytes.read(segment, length, segmentSize - length);
+        if (read == -1) {
+          bytes.close();
+          byte[] last = new byte[length];
+          System.arraycopy(segment, 0, last, 0, length);
+          return last;
+        }
+        length += read;
+      }
+      return segment;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the segment stream", e);
+    }
+  }
+
   /**
    * Read all of the bytes in an input stream.
    *
@@ -137,10 +315,11 @@ public class SegmentationHelper {
    */
   public static byte[] readAll(InputStream bytes) throws IOException {
     ByteArrayOutputStream builder = new ByteArrayOutputStream();
-    int read = bytes.read();
+    byte[] buffer = new byte[READ_BUFFER_SIZE];
+    int read = bytes.read(buffer);
     while (read != -1) {
-      builder.write(read);
-      read = bytes.read();
+      builder.write(buffer, 0, read);
+      read = bytes.read(buffer);
     }
     builder.flush();
     bytes.close();
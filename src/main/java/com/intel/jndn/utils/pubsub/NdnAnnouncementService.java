@@ -17,6 +17,7 @@ package com.intel.jndn.utils.pubsub;
 import com.intel.jndn.utils.Cancellation;
 import com.intel.jndn.utils.On;
 import com.intel.jndn.utils.client.impl.BackoffRetryClient;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Exclude;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -25,7 +26,6 @@ import net.named_data.jndn.Name;
 import net.named_data.jndn.OnInterestCallback;
 import net.named_data.jndn.OnRegisterFailed;
 import net.named_data.jndn.encoding.EncodingException;
-import net.named_data.jndn.security.SecurityException;
 
 import java.io.IOException;
 import java.util.HashSet;
@@ -66,7 +66,7 @@ class NdnAnnouncementService implements AnnouncementService {
     LOGGER.log(Level.INFO, "Announcing publisher entrance: {0} to {1}", new Object[]{id, broadcastPrefix});
     Name name = PubSubNamespace.toAnnouncement(broadcastPrefix, id, PubSubNamespace.Announcement.ENTRANCE);
     Interest interest = new Interest(name);
-    face.expressInterest(interest, null);
+    FaceReactor.await(FaceReactor.call(face, f -> f.expressInterest(interest, null)));
   }
 
   @Override
@@ -74,7 +74,7 @@ class NdnAnnouncementService implements AnnouncementService {
     LOGGER.log(Level.INFO, "Announcing publisher exit: {0} from {1}", new Object[]{id, broadcastPrefix});
     Name name = PubSubNamespace.toAnnouncement(broadcastPrefix, id, PubSubNamespace.Announcement.EXIT);
     Interest interest = new Interest(name);
-    face.expressInterest(interest, null);
+    FaceReactor.await(FaceReactor.call(face, f -> f.expressInterest(interest, null)));
   }
 
   @Override
@@ -150,12 +150,17 @@ class NdnAnnouncementService implements AnnouncementService {
     OnRegistration onRegistration = new OnRegistration(future);
     OnAnnouncement onAnnouncement = new OnAnnouncement(onAdded, onRemoved, onError);
 
-    try {
-      long registeredPrefix = face.registerPrefix(broadcastPrefix, onAnnouncement, (OnRegisterFailed) onRegistration, onRegistration);
-      return () -> face.removeRegisteredPrefix(registeredPrefix);
-    } catch (SecurityException e) {
-      throw new IOException("Failed while using transport security key chain", e);
-    }
+    long registeredPrefix = FaceReactor.await(FaceReactor.call(face, f -> f.registerPrefix(broadcastPrefix, onAnnouncement, (OnRegisterFailed) onRegistration, onRegistration)));
+    return () -> {
+      try {
+        FaceReactor.await(FaceReactor.call(face, f -> {
+          f.removeRegisteredPrefix(registeredPrefix);
+          return null;
+        }));
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Failed to stop observing announcements: {0}", new Object[]{broadcastPrefix, e});
+      }
+    };
   }
 
   private class OnAnnouncement implements OnInterestCallback {
@@ -17,6 +17,7 @@ package com.intel.jndn.utils.pubsub;
 import com.intel.jndn.utils.ContentStore;
 import com.intel.jndn.utils.PendingInterestTable;
 import com.intel.jndn.utils.Publisher;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -24,7 +25,6 @@ import net.named_data.jndn.InterestFilter;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.OnInterestCallback;
 import net.named_data.jndn.OnRegisterFailed;
-import net.named_data.jndn.security.SecurityException;
 import net.named_data.jndn.util.Blob;
 
 import java.io.IOException;
@@ -94,11 +94,11 @@ class NdnPublisher implements Publisher, OnInterestCallback {
     OnRegistration onRegistration = new OnRegistration(future);
 
     try {
-      registrationId = face.registerPrefix(prefix, this, (OnRegisterFailed) onRegistration, onRegistration);
-      // assumes face.processEvents is driven concurrently elsewhere
+      registrationId = FaceReactor.await(FaceReactor.call(face, f -> f.registerPrefix(prefix, this, (OnRegisterFailed) onRegistration, onRegistration)));
+      // assumes face.processEvents is driven concurrently elsewhere, e.g. by a FaceReactor
       future.get(10, TimeUnit.SECONDS);
       announcementService.announceEntrance(publisherId);
-    } catch (IOException | SecurityException | InterruptedException | ExecutionException | TimeoutException e) {
+    } catch (IOException | InterruptedException | ExecutionException | TimeoutException e) {
       throw new IOException("Failed to register NDN prefix; pub-sub IO will be impossible", e);
     }
   }
@@ -112,7 +112,11 @@ class NdnPublisher implements Publisher, OnInterestCallback {
   @Override
   public synchronized void close() throws IOException {
     if (opened) {
-      face.removeRegisteredPrefix(registrationId);
+      long id = registrationId;
+      FaceReactor.await(FaceReactor.call(face, f -> {
+        f.removeRegisteredPrefix(id);
+        return null;
+      }));
       contentStore.clear();
       announcementService.announceExit(publisherId);
     }
@@ -129,7 +133,14 @@ class NdnPublisher implements Publisher, OnInterestCallback {
     LOGGER.log(Level.INFO, "Published message {0} to content store: {1}", new Object[]{id, name});
 
     if (pendingInterestTable.has(new Interest(name))) {
-      sendContent(face, name);
+      FaceReactor.call(face, f -> {
+        sendContent(f, name);
+        return null;
+      }).whenComplete((ignored, e) -> {
+        if (e != null) {
+          LOGGER.log(Level.SEVERE, "Failed to send message, aborting: {0}", new Object[]{name, e});
+        }
+      });
       // TODO extract satisfied interests
     }
   }
@@ -0,0 +1,315 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Store {@link Data} packets up to a capacity in bytes of wire encoding; once
+ * the capacity is exceeded, packets are evicted according to an
+ * {@link EvictionPolicy}. Packets are keyed by name so storing a packet with an
+ * existing name replaces the previous packet.
+ * <p>
+ * This class is thread-safe: lookups search a concurrent index (see
+ * {@link NameIndexSelector}) without locking, while puts, evictions and the
+ * bookkeeping of hits are serialized.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class BoundedRepository implements Repository {
+
+  private static final Logger logger = Logger.getLogger(BoundedRepository.class.getName());
+  private final long capacity;
+  private final EvictionPolicy policy;
+  private final ConcurrentNavigableMap<Name, Record> storage = new ConcurrentSkipListMap<>();
+  private final LinkedHashMap<Name, Record> order;
+  private final TreeSet<Record> frequencies;
+  private final Object lock = new Object();
+  private final AtomicLong hitCount = new AtomicLong(0);
+  private final AtomicLong missCount = new AtomicLong(0);
+  private final AtomicLong evictionCount = new AtomicLong(0);
+  private long size;
+  private long sequence;
+
+  /**
+   * Policies for choosing the packet to evict once the repository is full
+   */
+  public enum EvictionPolicy {
+    /**
+     * Evict the least-recently retrieved (or stored) packet
+     */
+    LRU,
+    /**
+     * Evict the least-frequently retrieved packet; ties evict the oldest
+     */
+    LFU,
+    /**
+     * Evict the earliest stored packet
+     */
+    FIFO
+  }
+
+  /**
+   * @param capacity the maximum number of bytes of wire-encoded packets to store
+   * @param policy the policy for choosing packets to evict
+   */
+  public BoundedRepository(long capacity, EvictionPolicy policy) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.policy = policy;
+    this.order = new LinkedHashMap<>(16, 0.75f, policy == EvictionPolicy.LRU);
+    this.frequencies = new TreeSet<>(Comparator.<Record>comparingLong(r -> r.hits).thenComparingLong(r -> r.sequence));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void put(Data data) {
+    Record record = new Record(data);
+    if (record.size > capacity) {
+      logger.warning("Packet is larger than the repository capacity, ignoring: " + data.getName().toUri());
+      return;
+    }
+
+    synchronized (lock) {
+      add(record);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(Collection<? extends Data> packets) {
+    List<Record> records = new ArrayList<>(packets.size());
+    for (Data data : packets) {
+      Record record = new Record(data);
+      if (record.size > capacity) {
+        logger.warning("Packet is larger than the repository capacity, ignoring: " + data.getName().toUri());
+      } else {
+        records.add(record);
+      }
+    }
+
+    synchronized (lock) {
+      for (Record record : records) {
+        add(record);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Data get(Interest interest) throws DataNotFoundException {
+    Record record = NameIndexSelector.select(storage, interest, r -> hasAcceptableFreshness(interest, r));
+    if (record == null) {
+      missCount.incrementAndGet();
+      throw new DataNotFoundException();
+    }
+
+    hitCount.incrementAndGet();
+    touch(record);
+    return record.data;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean satisfies(Interest interest) {
+    return NameIndexSelector.select(storage, interest, r -> hasAcceptableFreshness(interest, r)) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanup() {
+    long now = System.currentTimeMillis();
+    synchronized (lock) {
+      Iterator<Record> records = order.values().iterator();
+      while (records.hasNext()) {
+        Record record = records.next();
+        if (record.expiresAt <= now) {
+          records.remove();
+          storage.remove(record.name, record);
+          frequencies.remove(record);
+          size -= record.size;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of calls to {@link #get(Interest)} returning a packet
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * @return the number of calls to {@link #get(Interest)} finding no packet
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return the number of packets evicted to stay within capacity
+   */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * @return the number of bytes of wire-encoded packets currently stored
+   */
+  public long getSize() {
+    synchronized (lock) {
+      return size;
+    }
+  }
+
+  /**
+   * @return the maximum number of bytes of wire-encoded packets to store
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Store a record and evict others until the repository is within capacity;
+   * callers must hold the lock.
+   *
+   * @param record the record to store
+   */
+  private void add(Record record) {
+    record.sequence = sequence++;
+    Record replaced = storage.put(record.name, record);
+    if (replaced != null) {
+      unlink(replaced);
+    }
+    link(record);
+    while (size > capacity) {
+      evict(victim(record));
+    }
+  }
+
+  /**
+   * Record a retrieval of the packet for the eviction policy.
+   *
+   * @param record the retrieved record
+   */
+  private void touch(Record record) {
+    synchronized (lock) {
+      if (storage.get(record.name) != record) {
+        return; // evicted or replaced concurrently
+      }
+      if (policy == EvictionPolicy.LRU) {
+        order.get(record.name); // moves the record to the tail of the access order
+      } else if (policy == EvictionPolicy.LFU) {
+        frequencies.remove(record);
+        record.hits++;
+        frequencies.add(record);
+      }
+    }
+  }
+
+  /**
+   * @param incoming the record being stored; it is never chosen so that a new
+   * packet is not evicted before it can be retrieved
+   * @return the record to evict according to the policy; the repository must
+   * contain another record
+   */
+  private Record victim(Record incoming) {
+    Iterator<Record> candidates = policy == EvictionPolicy.LFU ? frequencies.iterator() : order.values().iterator();
+    Record candidate = candidates.next();
+    return candidate != incoming ? candidate : candidates.next();
+  }
+
+  private void evict(Record record) {
+    storage.remove(record.name, record);
+    unlink(record);
+    evictionCount.incrementAndGet();
+    logger.finer("Evicted packet: " + record.name.toUri());
+  }
+
+  private void link(Record record) {
+    order.put(record.name, record);
+    if (policy == EvictionPolicy.LFU) {
+      frequencies.add(record);
+    }
+    size += record.size;
+  }
+
+  private void unlink(Record record) {
+    order.remove(record.name);
+    frequencies.remove(record);
+    size -= record.size;
+  }
+
+  /**
+   * Based on an Interest's requested freshness, determine if the record has an
+   * acceptable freshness.
+   *
+   * @param interest the Interest, with mustBeFresh set to true/false
+   * @param record the record to check
+   * @return true if the Interest does not require a fresh record or if the
+   * record is fresh
+   */
+  private static boolean hasAcceptableFreshness(Interest interest, Record record) {
+    return !interest.getMustBeFresh() || record.expiresAt > System.currentTimeMillis();
+  }
+
+  /**
+   * Helper data structure
+   */
+  private static class Record {
+
+    final Name name;
+    final Data data;
+    final long size;
+    final long expiresAt;
+    long hits;
+    long sequence;
+
+    Record(Data data) {
+      this.name = new Name(data.getName());
+      this.data = data;
+      this.size = data.wireEncode().size(); // the encoding is cached by the packet for later sends
+      double period = data.getMetaInfo().getFreshnessPeriod();
+      this.expiresAt = period < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + (long) period;
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store {@link Data} packets in a concurrent skip list sorted in NDN canonical
+ * name order; all names under an {@link Interest} prefix are then contiguous so
+ * lookups only visit candidate records instead of the entire repository (see
+ * {@link NameIndexSelector}).
+ * <p>
+ * This class is thread-safe: any number of threads may {@link #put(Data)} while
+ * others {@link #get(Interest)}; reads never lock and iterate over a weakly
+ * consistent view of the storage. Packets are keyed by name so storing a packet
+ * with an existing name atomically replaces the previous packet (see
+ * {@link #getReplacedCount()}).
+ * <p>
+ * Packets with a freshness period are also indexed by expiry time so that
+ * {@link #cleanup()} only visits expired records, in O(k log n) for k expired
+ * records; see {@link RepositorySweeper} to run it periodically. Replaced and
+ * removed records are left in the expiry index and counted as stale; once they
+ * make up most of the index it is compacted, so republishing the same names
+ * does not grow it without bound.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ConcurrentRepository implements Repository {
+
+  private static final int MIN_COMPACTION_SIZE = 64;
+  private final ConcurrentNavigableMap<Name, Record> storage = new ConcurrentSkipListMap<>();
+  private final BlockingQueue<Record> expiries = new PriorityBlockingQueue<>(11, Comparator.comparingLong(r -> r.expiresAt));
+  private final AtomicLong replacedCount = new AtomicLong(0);
+  private final AtomicLong staleCount = new AtomicLong(0);
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void put(Data data) {
+    Record record = new Record(data);
+    replaced(storage.put(record.name, record));
+    if (record.expiresAt != Long.MAX_VALUE) {
+      expiries.add(record);
+    }
+    compactIfStale();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(Collection<? extends Data> packets) {
+    List<Record> expiring = new ArrayList<>();
+    for (Data data : packets) {
+      Record record = new Record(data);
+      replaced(storage.put(record.name, record));
+      if (record.expiresAt != Long.MAX_VALUE) {
+        expiring.add(record);
+      }
+    }
+    expiries.addAll(expiring);
+    compactIfStale();
+  }
+
+  /**
+   * Remove all packets whose names start with a prefix.
+   *
+   * @param prefix the {@link Name} prefix of the packets to remove
+   */
+  public void remove(Name prefix) {
+    for (Name name : storage.tailMap(prefix, true).keySet()) {
+      if (!prefix.isPrefixOf(name)) {
+        break;
+      }
+      markStale(storage.remove(name));
+    }
+  }
+
+  /**
+   * @return the number of stored packets replaced by a packet with the same
+   * name
+   */
+  public long getReplacedCount() {
+    return replacedCount.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Data get(Interest interest) throws DataNotFoundException {
+    Record record = NameIndexSelector.select(storage, interest, r -> hasAcceptableFreshness(interest, r));
+    if (record != null) {
+      return record.data;
+    } else {
+      throw new DataNotFoundException();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean satisfies(Interest interest) {
+    return NameIndexSelector.select(storage, interest, r -> hasAcceptableFreshness(interest, r)) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanup() {
+    long now = System.currentTimeMillis();
+    synchronized (expiries) {
+      // only cleanup polls the index; a concurrent put may add an earlier expiry but never removes the head
+      while (!expiries.isEmpty() && expiries.peek().expiresAt <= now) {
+        Record expired = expiries.poll();
+        // only remove the exact record indexed; a later put may have replaced it
+        if (!storage.remove(expired.name, expired)) {
+          staleCount.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+      }
+    }
+    compactIfStale();
+  }
+
+  /**
+   * @return the number of records in the expiry index, including stale ones
+   */
+  int getExpiryIndexSize() {
+    return expiries.size();
+  }
+
+  /**
+   * Count a record replaced by a put.
+   *
+   * @param previous the record previously stored with the same name, or null
+   */
+  private void replaced(Record previous) {
+    if (previous != null) {
+      replacedCount.incrementAndGet();
+      markStale(previous);
+    }
+  }
+
+  /**
+   * Count a record no longer stored but possibly still in the expiry index.
+   *
+   * @param record the removed or replaced record, or null
+   */
+  private void markStale(Record record) {
+    if (record != null && record.expiresAt != Long.MAX_VALUE) {
+      staleCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Drop the records no longer stored from the expiry index once they make up
+   * more than half of it; this is O(n) but amortized over the n/2 puts or
+   * removals that made the records stale. The stale count is approximate under
+   * concurrent puts, which only delays or hastens the next compaction.
+   */
+  private void compactIfStale() {
+    long stale = staleCount.get();
+    if (stale < MIN_COMPACTION_SIZE || stale * 2 < expiries.size()) {
+      return;
+    }
+    synchronized (expiries) {
+      staleCount.set(0);
+      expiries.removeIf(r -> storage.get(r.name) != r);
+    }
+  }
+
+  /**
+   * Check if a record is fresh.
+   *
+   * @param record the record to check
+   * @return true if the record is fresh
+   */
+  private static boolean isFresh(Record record) {
+    return record.expiresAt > System.currentTimeMillis();
+  }
+
+  /**
+   * Based on an Interest's requested freshness, determine if the record has an
+   * acceptable freshness.
+   *
+   * @param interest the Interest, with mustBeFresh set to true/false
+   * @param record the record to check
+   * @return true if the Interest does not require a fresh record or if the
+   * record is fresh
+   */
+  private static boolean hasAcceptableFreshness(Interest interest, Record record) {
+    return !interest.getMustBeFresh() || isFresh(record);
+  }
+
+  /**
+   * Helper data structure
+   */
+  private static class Record {
+
+    final Name name;
+    final Data data;
+    final long expiresAt;
+
+    Record(Data data) {
+      this.name = new Name(data.getName());
+      this.data = data;
+      double period = data.getMetaInfo().getFreshnessPeriod();
+      this.expiresAt = period < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + (long) period;
+    }
+  }
+}
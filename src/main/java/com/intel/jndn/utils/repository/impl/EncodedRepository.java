@@ -0,0 +1,368 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.KeyLocatorType;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.Tlv;
+import net.named_data.jndn.encoding.tlv.TlvDecoder;
+import net.named_data.jndn.util.Blob;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Store {@link Data} packets in their wire encoding only: each packet is one
+ * byte array plus a small header (offsets of the name components, insertion and
+ * expiry times) instead of a decoded object graph, and {@link #getEncoded(Interest)}
+ * returns the stored bytes without copying or re-encoding.
+ * <p>
+ * The index is keyed by the encoded name components, a read-only view into the
+ * stored bytes. Since TLV encoding is prefix-free, all names under an
+ * {@link Interest} prefix share its encoded bytes as a prefix and are contiguous
+ * in the index; Interests without selectors are therefore answered without
+ * decoding anything. Names are decoded (and not retained) only when selectors
+ * must inspect their components. Packets are keyed by name so storing a packet
+ * with an existing name replaces the previous packet.
+ * <p>
+ * Packets with a freshness period are also indexed by expiry time; as in
+ * {@link ConcurrentRepository}, replaced records are left in the expiry index
+ * and counted as stale, and the index is compacted once they make up most of
+ * it.
+ * <p>
+ * This class is thread-safe; reads never lock.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class EncodedRepository implements Repository {
+
+  private static final Logger logger = Logger.getLogger(EncodedRepository.class.getName());
+  private static final int MIN_COMPACTION_SIZE = 64;
+  private final ConcurrentNavigableMap<ByteBuffer, Record> storage = new ConcurrentSkipListMap<>();
+  private final BlockingQueue<Record> expiries = new PriorityBlockingQueue<>(11, Comparator.comparingLong(r -> r.expiresAt));
+  private final AtomicLong staleCount = new AtomicLong(0);
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void put(Data data) {
+    Record record = encode(data);
+    markStale(storage.put(record.key, record));
+    if (record.expiresAt != Long.MAX_VALUE) {
+      expiries.add(record);
+    }
+    compactIfStale();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(Collection<? extends Data> packets) {
+    List<Record> expiring = new ArrayList<>();
+    for (Data data : packets) {
+      Record record = encode(data);
+      markStale(storage.put(record.key, record));
+      if (record.expiresAt != Long.MAX_VALUE) {
+        expiring.add(record);
+      }
+    }
+    expiries.addAll(expiring);
+    compactIfStale();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Data get(Interest interest) throws DataNotFoundException {
+    Record record = select(interest);
+    try {
+      Data data = new Data();
+      data.wireDecode(record.encoding());
+      return data;
+    } catch (EncodingException e) {
+      logger.log(Level.WARNING, "Failed to decode stored packet", e);
+      throw new DataNotFoundException();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Blob getEncoded(Interest interest) throws DataNotFoundException {
+    return select(interest).encoding();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean satisfies(Interest interest) {
+    try {
+      select(interest);
+      return true;
+    } catch (DataNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanup() {
+    long now = System.currentTimeMillis();
+    synchronized (expiries) {
+      while (!expiries.isEmpty() && expiries.peek().expiresAt <= now) {
+        Record expired = expiries.poll();
+        // only remove the exact record indexed; a later put may have replaced it
+        if (!storage.remove(expired.key, expired)) {
+          staleCount.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+      }
+    }
+    compactIfStale();
+  }
+
+  /**
+   * @return the number of records in the expiry index, including stale ones
+   */
+  int getExpiryIndexSize() {
+    return expiries.size();
+  }
+
+  /**
+   * Count a record replaced by a put but possibly still in the expiry index.
+   *
+   * @param record the replaced record, or null
+   */
+  private void markStale(Record record) {
+    if (record != null && record.expiresAt != Long.MAX_VALUE) {
+      staleCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Drop the records no longer stored from the expiry index once they make up
+   * more than half of it; see {@link ConcurrentRepository}.
+   */
+  private void compactIfStale() {
+    long stale = staleCount.get();
+    if (stale < MIN_COMPACTION_SIZE || stale * 2 < expiries.size()) {
+      return;
+    }
+    synchronized (expiries) {
+      staleCount.set(0);
+      expiries.removeIf(r -> storage.get(r.key) != r);
+    }
+  }
+
+  /**
+   * Find the record satisfying the {@link Interest}; the matching logic follows
+   * {@link ForLoopRepository}.
+   *
+   * @param interest the {@link Interest} to satisfy
+   * @return the matching record
+   * @throws DataNotFoundException if no record matches
+   */
+  private Record select(Interest interest) throws DataNotFoundException {
+    ByteBuffer prefix = componentsOf(interest.getName().wireEncode().buf());
+    boolean hasSelectors = hasSelectors(interest);
+
+    if (!hasSelectors) {
+      Record exact = storage.get(prefix);
+      if (exact != null && hasAcceptableFreshness(interest, exact)) {
+        return exact;
+      }
+    }
+
+    Name.Component selectedComponent = null;
+    Record selected = null;
+    for (Map.Entry<ByteBuffer, Record> entry : storage.tailMap(prefix, true).entrySet()) {
+      if (!startsWith(entry.getKey(), prefix)) {
+        break;
+      }
+
+      Record record = entry.getValue();
+      if (!hasAcceptableFreshness(interest, record)) {
+        continue;
+      }
+      if (!hasSelectors) {
+        return record;
+      }
+
+      Name name = record.name();
+      if (name == null || !interest.matchesName(name)) {
+        continue;
+      }
+      if (interest.getChildSelector() < 0) {
+        return record;
+      }
+
+      Name.Component component = name.size() > interest.getName().size()
+              ? name.get(interest.getName().size()) : new Name.Component();
+      if (selected == null
+              || (interest.getChildSelector() == Interest.CHILD_SELECTOR_LEFT && component.compare(selectedComponent) < 0)
+              || (interest.getChildSelector() == Interest.CHILD_SELECTOR_RIGHT && component.compare(selectedComponent) > 0)) {
+        selectedComponent = component;
+        selected = record;
+      }
+    }
+
+    if (selected != null) {
+      return selected;
+    } else {
+      throw new DataNotFoundException();
+    }
+  }
+
+  private static Record encode(Data data) {
+    try {
+      return new Record(data);
+    } catch (EncodingException e) {
+      throw new IllegalArgumentException("Failed to parse the encoding of packet: " + data.getName().toUri(), e);
+    }
+  }
+
+  /**
+   * @param interest the {@link Interest} to check
+   * @return true if matching the {@link Interest} requires more than a name
+   * prefix comparison
+   */
+  private static boolean hasSelectors(Interest interest) {
+    return interest.getChildSelector() >= 0
+            || interest.getMinSuffixComponents() >= 0
+            || interest.getMaxSuffixComponents() >= 0
+            || interest.getExclude().size() > 0
+            || interest.getKeyLocator().getType() != KeyLocatorType.NONE
+            || (interest.getName().size() > 0 && interest.getName().get(-1).isImplicitSha256Digest());
+  }
+
+  /**
+   * @param encodedName a wire-encoded name TLV
+   * @return a read-only view of the encoded components of the name
+   */
+  private static ByteBuffer componentsOf(ByteBuffer encodedName) {
+    TlvDecoder decoder = new TlvDecoder(encodedName.duplicate());
+    try {
+      int length = decoder.readTypeAndLength(Tlv.Name);
+      return slice(encodedName, decoder.getOffset(), length);
+    } catch (EncodingException e) {
+      throw new IllegalStateException("Failed to parse an encoded name", e);
+    }
+  }
+
+  /**
+   * @param buffer the buffer to view
+   * @param offset the absolute position of the view in the buffer
+   * @param length the length of the view
+   * @return a read-only view of a region of the buffer
+   */
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer slice = buffer.duplicate();
+    slice.limit(offset + length);
+    slice.position(offset);
+    return slice.slice().asReadOnlyBuffer();
+  }
+
+  private static boolean startsWith(ByteBuffer key, ByteBuffer prefix) {
+    if (key.remaining() < prefix.remaining()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.remaining(); i++) {
+      if (key.get(key.position() + i) != prefix.get(prefix.position() + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Based on an Interest's requested freshness, determine if the record has an
+   * acceptable freshness.
+   *
+   * @param interest the Interest, with mustBeFresh set to true/false
+   * @param record the record to check
+   * @return true if the Interest does not require a fresh record or if the
+   * record is fresh
+   */
+  private static boolean hasAcceptableFreshness(Interest interest, Record record) {
+    return !interest.getMustBeFresh() || record.expiresAt > System.currentTimeMillis();
+  }
+
+  /**
+   * Helper data structure: the wire encoding of a packet and its header
+   */
+  private static class Record {
+
+    final byte[] wire;
+    final int nameOffset;
+    final int nameEnd;
+    final ByteBuffer key;
+    final long insertedAt;
+    final long expiresAt;
+
+    Record(Data data) throws EncodingException {
+      this.wire = data.wireEncode().getImmutableArray();
+      TlvDecoder decoder = new TlvDecoder(ByteBuffer.wrap(wire));
+      decoder.readNestedTlvsStart(Tlv.Data);
+      this.nameOffset = decoder.getOffset();
+      int componentsLength = decoder.readTypeAndLength(Tlv.Name);
+      this.nameEnd = decoder.getOffset() + componentsLength;
+      this.key = slice(ByteBuffer.wrap(wire), decoder.getOffset(), componentsLength);
+      this.insertedAt = System.currentTimeMillis();
+      double period = data.getMetaInfo().getFreshnessPeriod();
+      this.expiresAt = period < 0 ? Long.MAX_VALUE : insertedAt + (long) period;
+    }
+
+    /**
+     * @return a read-only, uncopied view of the wire encoding
+     */
+    Blob encoding() {
+      return new Blob(ByteBuffer.wrap(wire).asReadOnlyBuffer(), false);
+    }
+
+    /**
+     * @return the decoded name or null if it cannot be decoded
+     */
+    Name name() {
+      Name name = new Name();
+      try {
+        name.wireDecode(slice(ByteBuffer.wrap(wire), nameOffset, nameEnd - nameOffset));
+        return name;
+      } catch (EncodingException e) {
+        logger.log(Level.WARNING, "Failed to decode stored name", e);
+        return null;
+      }
+    }
+  }
+}
@@ -15,7 +15,9 @@ package com.intel.jndn.utils.repository.impl;
 
 import com.intel.jndn.utils.Repository;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
@@ -25,19 +27,86 @@ import net.named_data.jndn.Name;
  * the best match; this is a subset of the functionality provided in
  * {@link net.named_data.jndn.util.MemoryContentCache} and borrows the matching
  * logic from there.
+ * <p>
+ * By default every {@link #put(Data)} appends a new record, even if a packet
+ * with the same name is already stored; use {@link #ForLoopRepository(boolean)}
+ * to replace the existing packet instead so that memory stays proportional to
+ * the number of distinct names.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
 public class ForLoopRepository implements Repository {
 
   private final List<Record> storage = new ArrayList<>();
+  private final boolean replaceOnPut;
+  private final AtomicLong replacedCount = new AtomicLong(0);
+
+  /**
+   * Build a repository that keeps duplicate names.
+   */
+  public ForLoopRepository() {
+    this(false);
+  }
+
+  /**
+   * @param replaceOnPut if true, storing a packet with the name of an already
+   * stored packet replaces the old packet instead of appending a duplicate
+   */
+  public ForLoopRepository(boolean replaceOnPut) {
+    this.replaceOnPut = replaceOnPut;
+  }
 
   /**
    * {@inheritDoc}
    */
   @Override
   public void put(Data data) {
-    storage.add(new Record(data));
+    if (!replaceOnPut) {
+      storage.add(new Record(data));
+      return;
+    }
+
+    synchronized (storage) {
+      for (int i = 0; i < storage.size(); i++) {
+        if (storage.get(i).data.getName().equals(data.getName())) {
+          storage.set(i, new Record(data));
+          replacedCount.incrementAndGet();
+          return;
+        }
+      }
+      storage.add(new Record(data));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(Collection<? extends Data> packets) {
+    if (!replaceOnPut) {
+      List<Record> records = new ArrayList<>(packets.size());
+      for (Data data : packets) {
+        records.add(new Record(data));
+      }
+      synchronized (storage) {
+        storage.addAll(records);
+      }
+      return;
+    }
+
+    synchronized (storage) {
+      for (Data data : packets) {
+        put(data);
+      }
+    }
+  }
+
+  /**
+   * @return the number of stored packets replaced by a packet with the same
+   * name; this is always zero unless the repository replaces on put
+   */
+  public long getReplacedCount() {
+    return replacedCount.get();
   }
 
   /**
@@ -118,8 +187,19 @@ public class ForLoopRepository implements Repository {
    * @return true if the record is fresh
    */
   private boolean isFresh(Record record) {
+    return isFresh(record, System.currentTimeMillis());
+  }
+
+  /**
+   * Check if a record is fresh at the given time.
+   *
+   * @param record the record to check
+   * @param now the current time, in milliseconds
+   * @return true if the record is fresh
+   */
+  private static boolean isFresh(Record record, long now) {
     double period = record.data.getMetaInfo().getFreshnessPeriod();
-    return period < 0 || record.addedAt + (long) period > System.currentTimeMillis();
+    return period < 0 || record.addedAt + (long) period > now;
   }
 
   /**
@@ -153,12 +233,9 @@ public class ForLoopRepository implements Repository {
    */
   @Override
   public void cleanup() {
-    for (int i = storage.size() - 1; i >= 0; i--) {
-      if (!isFresh(storage.get(i))) {
-        synchronized (storage) {
-          storage.remove(i);
-        }
-      }
+    long now = System.currentTimeMillis();
+    synchronized (storage) {
+      storage.removeIf(record -> !isFresh(record, now));
     }
   }
 
@@ -0,0 +1,834 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.util.Blob;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Store wire-encoded {@link Data} packets in an append-only log file on disk
+ * and keep an in-memory index from name to log position; packets therefore
+ * survive restarts without being re-segmented or re-signed.
+ * <p>
+ * Each log record is a 16-byte header (wire length, CRC32 of the wire
+ * encoding, insertion time) followed by the wire encoding. The log is synced to
+ * disk every {@code syncBatchSize} puts. On startup the index is loaded from
+ * the last index checkpoint (written by {@link #checkpoint()} and
+ * {@link #close()}), if any, and the rest of the log is scanned; a torn or
+ * corrupted record ends the scan and the log is truncated there. Storing a
+ * packet with an existing name replaces the previous packet; the replaced
+ * record stays in the log until {@link #compact()} rewrites the log with live
+ * records only. {@link #cleanup()} removes expired packets and compacts the log
+ * once more than half of it is dead, so running it from a
+ * {@link RepositorySweeper} compacts in the background. As in
+ * {@link ConcurrentRepository}, replaced records are left in the in-memory
+ * expiry index and counted as stale until they make up most of it.
+ * <p>
+ * This class is thread-safe: reads never lock and use positional reads on the
+ * log, while puts and compaction are serialized. Interrupting a thread doing
+ * I/O on the log closes the underlying {@link FileChannel} (see
+ * {@link java.nio.channels.InterruptibleChannel}); the interrupted operation
+ * fails but the log is reopened for all other threads. Only one repository may
+ * use a directory at a time: it holds a lock on the directory until
+ * {@link #close()}, across processes and within one process.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class LogRepository implements Repository, Closeable {
+
+  public static final int DEFAULT_SYNC_BATCH_SIZE = 64;
+  private static final Logger logger = Logger.getLogger(LogRepository.class.getName());
+  private static final String LOG_FILE = "data.log";
+  private static final String COMPACTION_FILE = "data.log.compacting";
+  private static final String CHECKPOINT_FILE = "index.checkpoint";
+  private static final String CHECKPOINT_TEMPORARY_FILE = "index.checkpoint.tmp";
+  private static final String LOCK_FILE = "lock";
+  private static final int HEADER_SIZE = 16;
+  private static final int MAX_WRITE_SIZE = 1 << 20;
+  private static final double COMPACTION_RATIO = 0.5;
+  private static final int MIN_COMPACTION_SIZE = 64;
+  private final Path directory;
+  private final int syncBatchSize;
+  private final ConcurrentNavigableMap<Name, Entry> index = new ConcurrentSkipListMap<>();
+  private final BlockingQueue<Entry> expiries = new PriorityBlockingQueue<>(11, Comparator.comparingLong(e -> e.expiresAt));
+  private final AtomicLong deadBytes = new AtomicLong(0);
+  private final AtomicLong staleCount = new AtomicLong(0);
+  private final Object writeLock = new Object();
+  private final FileChannel lockChannel;
+  private volatile LogFile log;
+  private long logLength;
+  private int unsynced;
+  private boolean closed;
+
+  /**
+   * Open or create a repository syncing every
+   * {@link #DEFAULT_SYNC_BATCH_SIZE} puts.
+   *
+   * @param directory the directory holding the log and index checkpoint
+   * @throws IOException if the log cannot be opened or recovered, or if
+   * another repository is using the directory
+   */
+  public LogRepository(Path directory) throws IOException {
+    this(directory, DEFAULT_SYNC_BATCH_SIZE);
+  }
+
+  /**
+   * Open or create a repository; existing packets are recovered from the log.
+   *
+   * @param directory the directory holding the log and index checkpoint
+   * @param syncBatchSize the number of puts between syncs to disk; packets put
+   * since the last sync may be lost on a crash
+   * @throws IOException if the log cannot be opened or recovered, or if
+   * another repository is using the directory
+   */
+  public LogRepository(Path directory, int syncBatchSize) throws IOException {
+    if (syncBatchSize < 1) {
+      throw new IllegalArgumentException("The sync batch size must be positive: " + syncBatchSize);
+    }
+    Files.createDirectories(directory);
+    this.directory = directory;
+    this.syncBatchSize = syncBatchSize;
+    this.lockChannel = lock(directory);
+    try {
+      Path path = directory.resolve(LOG_FILE);
+      this.log = new LogFile(path, FileChannel.open(path, CREATE, READ, WRITE));
+      recover();
+    } catch (IOException | RuntimeException e) {
+      if (log != null) {
+        log.close();
+      }
+      lockChannel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the packet cannot be appended to the log
+   */
+  @Override
+  public void put(Data data) {
+    putAll(Collections.singletonList(data));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The batch is appended to the log with as few writes as possible, copying
+   * at most 1 MiB at a time, and synced at most once.
+   *
+   * @throws UncheckedIOException if the packets cannot be appended to the log
+   */
+  @Override
+  public void putAll(Collection<? extends Data> packets) {
+    if (packets.isEmpty()) {
+      return;
+    }
+
+    long insertedAt = System.currentTimeMillis();
+    List<ByteBuffer> wires = new ArrayList<>(packets.size());
+    long batchLength = 0;
+    for (Data data : packets) {
+      ByteBuffer wire = data.wireEncode().buf();
+      wires.add(wire);
+      batchLength += HEADER_SIZE + wire.remaining();
+    }
+
+    try {
+      synchronized (writeLock) {
+        long offset = logLength;
+        LogFile file = log;
+        append(file, wires, insertedAt, offset, batchLength);
+        logLength += batchLength;
+
+        int i = 0;
+        long position = offset;
+        for (Data data : packets) {
+          int length = wires.get(i++).remaining();
+          index(new Entry(new Name(data.getName()), file, position, length, insertedAt, expiresAt(data, insertedAt)));
+          position += HEADER_SIZE + length;
+        }
+        pruneExpiriesIfStale();
+
+        unsynced += wires.size();
+        if (unsynced >= syncBatchSize) {
+          sync();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append " + wires.size() + " packets to the log", e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Data get(Interest interest) throws DataNotFoundException {
+    Entry entry = NameIndexSelector.select(index, interest, e -> hasAcceptableFreshness(interest, e));
+    if (entry == null) {
+      throw new DataNotFoundException();
+    }
+
+    try {
+      Data data = new Data();
+      data.wireDecode(read(entry));
+      return data;
+    } catch (EncodingException e) {
+      logger.log(Level.WARNING, "Failed to decode packet from the log: " + entry.name.toUri(), e);
+      throw new DataNotFoundException();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Blob getEncoded(Interest interest) throws DataNotFoundException {
+    Entry entry = NameIndexSelector.select(index, interest, e -> hasAcceptableFreshness(interest, e));
+    if (entry == null) {
+      throw new DataNotFoundException();
+    }
+    return new Blob(read(entry), false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean satisfies(Interest interest) {
+    return NameIndexSelector.select(index, interest, e -> hasAcceptableFreshness(interest, e)) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the log must be compacted and compaction
+   * fails
+   */
+  @Override
+  public void cleanup() {
+    long now = System.currentTimeMillis();
+    synchronized (expiries) {
+      while (!expiries.isEmpty() && expiries.peek().expiresAt <= now) {
+        Entry expired = expiries.poll();
+        if (index.remove(expired.name, expired)) {
+          deadBytes.addAndGet(expired.size());
+        } else {
+          // replaced by a later put or moved by compaction
+          staleCount.updateAndGet(n -> n > 0 ? n - 1 : 0);
+        }
+      }
+    }
+    pruneExpiriesIfStale();
+
+    if (needsCompaction()) {
+      try {
+        compact();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to compact the log", e);
+      }
+    }
+  }
+
+  /**
+   * Force all appended packets to disk.
+   *
+   * @throws IOException if the sync fails
+   */
+  public void sync() throws IOException {
+    synchronized (writeLock) {
+      if (unsynced > 0) {
+        io(log, channel -> {
+          channel.force(false);
+          return null;
+        });
+        unsynced = 0;
+      }
+    }
+  }
+
+  /**
+   * Rewrite the log with only the live, unexpired records and swap it in place
+   * of the current log; puts block until compaction completes but reads
+   * continue.
+   *
+   * @throws IOException if the log cannot be rewritten
+   */
+  public void compact() throws IOException {
+    synchronized (writeLock) {
+      long now = System.currentTimeMillis();
+      Path compacting = directory.resolve(COMPACTION_FILE);
+      FileChannel target = FileChannel.open(compacting, CREATE, TRUNCATE_EXISTING, READ, WRITE);
+      // the compacted log is moved over the current log, so it is reopened from there
+      LogFile compacted = new LogFile(directory.resolve(LOG_FILE), target);
+      List<Entry> sources = new ArrayList<>();
+      List<Entry> moved = new ArrayList<>();
+      long position = 0;
+      try {
+        for (Entry entry : index.values()) {
+          if (entry.expiresAt <= now) {
+            continue;
+          }
+          ByteBuffer record = io(entry.file, channel -> readFully(channel, entry.offset, entry.size()));
+          writeFully(target, record, position);
+          sources.add(entry);
+          moved.add(new Entry(entry.name, compacted, position, entry.length, entry.insertedAt, entry.expiresAt));
+          position += entry.size();
+        }
+        target.force(true);
+
+        // a checkpoint of the old log must never be paired with the new log
+        Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+        Files.move(compacting, directory.resolve(LOG_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+      } catch (IOException e) {
+        target.close();
+        Files.deleteIfExists(compacting);
+        throw e;
+      }
+
+      LogFile old = log;
+      log = compacted;
+      logLength = position;
+      unsynced = 0;
+      deadBytes.set(0);
+      for (int i = 0; i < sources.size(); i++) {
+        Entry entry = moved.get(i);
+        if (!index.replace(entry.name, sources.get(i), entry)) {
+          // removed by a concurrent cleanup
+          deadBytes.addAndGet(entry.size());
+        }
+      }
+      for (Entry entry : index.values()) {
+        if (entry.file == old) {
+          // expired during compaction and left out of the new log
+          index.remove(entry.name, entry);
+        }
+      }
+      // the expiry index still refers to the old log; rebuild it from the moved entries
+      synchronized (expiries) {
+        expiries.clear();
+        staleCount.set(0);
+        for (Entry entry : index.values()) {
+          if (entry.expiresAt != Long.MAX_VALUE) {
+            expiries.add(entry);
+          }
+        }
+      }
+      old.close();
+      logger.fine("Compacted log to " + logLength + " bytes with " + moved.size() + " records");
+
+      checkpoint();
+    }
+  }
+
+  /**
+   * Write the in-memory index to disk so that the next startup only scans the
+   * log records appended afterwards.
+   *
+   * @throws IOException if the checkpoint cannot be written
+   */
+  public void checkpoint() throws IOException {
+    synchronized (writeLock) {
+      sync();
+      List<Entry> entries = new ArrayList<>(index.values());
+      Path temporary = directory.resolve(CHECKPOINT_TEMPORARY_FILE);
+      try (FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, WRITE)) {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        out.writeLong(logLength);
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+          byte[] name = entry.name.wireEncode().getImmutableArray();
+          out.writeInt(name.length);
+          out.write(name);
+          out.writeLong(entry.offset);
+          out.writeInt(entry.length);
+          out.writeLong(entry.insertedAt);
+          out.writeLong(entry.expiresAt);
+        }
+        out.flush();
+        channel.force(true);
+      }
+      Files.move(temporary, directory.resolve(CHECKPOINT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Sync the log, write an index checkpoint, and close the log; the
+   * repository cannot be used afterwards.
+   *
+   * @throws IOException if the log cannot be synced or closed
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        checkpoint();
+      } finally {
+        try {
+          log.close();
+        } finally {
+          lockChannel.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * Lock a repository directory for the lifetime of a repository; the lock is
+   * released when the returned channel is closed.
+   *
+   * @param directory the repository directory
+   * @return the open channel holding the lock
+   * @throws IOException if the lock file cannot be opened or another repository
+   * holds the lock
+   */
+  private static FileChannel lock(Path directory) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null; // held by another repository in this process
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IOException("The repository directory is in use by another LogRepository: " + directory);
+    }
+    return channel;
+  }
+
+  /**
+   * Rebuild the index from the checkpoint, if any, and the log records after
+   * it; truncate the log after the last valid record.
+   *
+   * @throws IOException if the log cannot be read
+   */
+  private void recover() throws IOException {
+    FileChannel channel = log.channel();
+    long start = loadCheckpoint();
+    long end = scan(start);
+    if (end < channel.size()) {
+      logger.warning("Truncating " + (channel.size() - end) + " bytes of incomplete or corrupted records from the log");
+      channel.truncate(end);
+      channel.force(true);
+    }
+    logLength = end;
+
+    long liveBytes = 0;
+    for (Entry entry : index.values()) {
+      liveBytes += entry.size();
+    }
+    deadBytes.set(logLength - liveBytes);
+    pruneExpiriesIfStale();
+    logger.fine("Recovered " + index.size() + " records from the log");
+  }
+
+  /**
+   * @return the log position indexed by the checkpoint or 0 if no usable
+   * checkpoint exists
+   */
+  private long loadCheckpoint() {
+    Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(checkpoint)) {
+      return 0;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+      long end = in.readLong();
+      if (end > log.channel().size()) {
+        throw new IOException("The checkpoint indexes more bytes than the log contains");
+      }
+
+      int count = in.readInt();
+      List<Entry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        byte[] nameBytes = new byte[in.readInt()];
+        in.readFully(nameBytes);
+        Name name = new Name();
+        name.wireDecode(new Blob(nameBytes, false));
+        Entry entry = new Entry(name, log, in.readLong(), in.readInt(), in.readLong(), in.readLong());
+        if (entry.offset < 0 || entry.offset + entry.size() > end) {
+          throw new IOException("The checkpoint references a record outside of the log: " + name.toUri());
+        }
+        entries.add(entry);
+      }
+
+      for (Entry entry : entries) {
+        index(entry);
+      }
+      return end;
+    } catch (IOException | EncodingException e) {
+      logger.log(Level.WARNING, "Ignoring unusable index checkpoint; scanning the entire log", e);
+      return 0;
+    }
+  }
+
+  /**
+   * Index the records of the log from a position until the end of the log or
+   * the first incomplete or corrupted record.
+   *
+   * @param position the position of the first record to scan
+   * @return the position after the last valid record
+   * @throws IOException if the log cannot be read
+   */
+  private long scan(long position) throws IOException {
+    FileChannel channel = log.channel();
+    long size = channel.size();
+    while (position + HEADER_SIZE <= size) {
+      ByteBuffer header = readFully(channel, position, HEADER_SIZE);
+      int length = header.getInt();
+      int crc = header.getInt();
+      long insertedAt = header.getLong();
+      if (length < 0 || position + HEADER_SIZE + length > size) {
+        break;
+      }
+
+      ByteBuffer wire = readFully(channel, position + HEADER_SIZE, length);
+      if (crc(wire) != crc) {
+        break;
+      }
+
+      Data data = new Data();
+      try {
+        data.wireDecode(wire);
+      } catch (EncodingException e) {
+        break;
+      }
+
+      index(new Entry(new Name(data.getName()), log, position, length, insertedAt, expiresAt(data, insertedAt)));
+      position += HEADER_SIZE + length;
+    }
+    return position;
+  }
+
+  /**
+   * Add an entry to the index, replacing any entry of the same name.
+   *
+   * @param entry the entry to add
+   */
+  private void index(Entry entry) {
+    Entry replaced = index.put(entry.name, entry);
+    if (replaced != null) {
+      deadBytes.addAndGet(replaced.size());
+      if (replaced.expiresAt != Long.MAX_VALUE) {
+        staleCount.incrementAndGet();
+      }
+    }
+    if (entry.expiresAt != Long.MAX_VALUE) {
+      expiries.add(entry);
+    }
+  }
+
+  /**
+   * Drop the entries no longer indexed from the expiry index once they make up
+   * more than half of it; see {@link ConcurrentRepository}.
+   */
+  private void pruneExpiriesIfStale() {
+    long stale = staleCount.get();
+    if (stale < MIN_COMPACTION_SIZE || stale * 2 < expiries.size()) {
+      return;
+    }
+    synchronized (expiries) {
+      staleCount.set(0);
+      expiries.removeIf(e -> index.get(e.name) != e);
+    }
+  }
+
+  /**
+   * @return the number of entries in the expiry index, including stale ones
+   */
+  int getExpiryIndexSize() {
+    return expiries.size();
+  }
+
+  /**
+   * @param entry the index entry to read
+   * @return the wire encoding of the packet
+   * @throws DataNotFoundException if the record cannot be read
+   */
+  private ByteBuffer read(Entry entry) throws DataNotFoundException {
+    try {
+      return io(entry.file, channel -> readFully(channel, entry.offset + HEADER_SIZE, entry.length));
+    } catch (ClosedByInterruptException e) {
+      throw new DataNotFoundException();
+    } catch (ClosedChannelException e) {
+      // a compaction moved the record; follow the index to its new location
+      Entry moved = index.get(entry.name);
+      if (moved != null && moved.file != entry.file) {
+        return read(moved);
+      }
+      throw new DataNotFoundException();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to read packet from the log: " + entry.name.toUri(), e);
+      throw new DataNotFoundException();
+    }
+  }
+
+  /**
+   * Write log records at a position, gathering small records into chunks of
+   * at most {@link #MAX_WRITE_SIZE} bytes; larger packets are written from
+   * their own buffers.
+   *
+   * @param file the log file to write to
+   * @param wires the wire encodings of the packets
+   * @param insertedAt the insertion time recorded in each header
+   * @param position the position of the first record
+   * @param batchLength the total length of the records, including headers
+   * @throws IOException if the records cannot be written
+   */
+  private static void append(LogFile file, List<ByteBuffer> wires, long insertedAt, long position, long batchLength) throws IOException {
+    ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(batchLength, MAX_WRITE_SIZE));
+    long chunkPosition = position;
+    for (ByteBuffer wire : wires) {
+      if (chunk.remaining() < HEADER_SIZE) {
+        chunkPosition = flush(file, chunk, chunkPosition);
+      }
+      chunk.putInt(wire.remaining()).putInt(crc(wire)).putLong(insertedAt);
+      if (chunk.remaining() >= wire.remaining()) {
+        chunk.put(wire.duplicate());
+      } else {
+        chunkPosition = flush(file, chunk, chunkPosition);
+        long at = chunkPosition;
+        io(file, channel -> writeFully(channel, wire.duplicate(), at));
+        chunkPosition += wire.remaining();
+      }
+    }
+    flush(file, chunk, chunkPosition);
+  }
+
+  /**
+   * @param file the log file to write to
+   * @param chunk the chunk to write, cleared afterwards
+   * @param position the position of the chunk in the log
+   * @return the position after the chunk
+   * @throws IOException if the chunk cannot be written
+   */
+  private static long flush(LogFile file, ByteBuffer chunk, long position) throws IOException {
+    chunk.flip();
+    io(file, channel -> writeFully(channel, chunk.duplicate(), position));
+    long end = position + chunk.remaining();
+    chunk.clear();
+    return end;
+  }
+
+  /**
+   * @return true if more than half of the log is taken by dead records
+   */
+  private boolean needsCompaction() {
+    synchronized (writeLock) {
+      return logLength > 0 && deadBytes.get() > logLength * COMPACTION_RATIO;
+    }
+  }
+
+  /**
+   * Run an operation on the channel of a log file, reopening the channel if
+   * it was closed by the interrupt of another thread; the operation is retried
+   * once on the reopened channel.
+   *
+   * @param file the log file
+   * @param operation the operation to run
+   * @param <T> the result of the operation
+   * @return the result of the operation
+   * @throws ClosedByInterruptException if the calling thread was interrupted;
+   * the channel is reopened for other threads
+   * @throws ClosedChannelException if the log file was closed by compaction or
+   * {@link #close()}
+   * @throws IOException if the operation fails
+   */
+  private static <T> T io(LogFile file, ChannelOperation<T> operation) throws IOException {
+    FileChannel channel = file.channel();
+    try {
+      return operation.apply(channel);
+    } catch (ClosedByInterruptException e) {
+      file.reopen(channel);
+      throw e;
+    } catch (ClosedChannelException e) {
+      return operation.apply(file.reopen(channel));
+    }
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of log at position " + (position + buffer.position()));
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  private static Void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position() - start);
+    }
+    return null;
+  }
+
+  private static int crc(ByteBuffer buffer) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate());
+    return (int) crc.getValue();
+  }
+
+  private static long expiresAt(Data data, long insertedAt) {
+    double period = data.getMetaInfo().getFreshnessPeriod();
+    return period < 0 ? Long.MAX_VALUE : insertedAt + (long) period;
+  }
+
+  /**
+   * Based on an Interest's requested freshness, determine if the entry has an
+   * acceptable freshness.
+   *
+   * @param interest the Interest, with mustBeFresh set to true/false
+   * @param entry the entry to check
+   * @return true if the Interest does not require a fresh entry or if the entry
+   * is fresh
+   */
+  private static boolean hasAcceptableFreshness(Interest interest, Entry entry) {
+    return !interest.getMustBeFresh() || entry.expiresAt > System.currentTimeMillis();
+  }
+
+  /**
+   * An I/O operation on a {@link FileChannel}
+   *
+   * @param <T> the result of the operation
+   */
+  @FunctionalInterface
+  private interface ChannelOperation<T> {
+    T apply(FileChannel channel) throws IOException;
+  }
+
+  /**
+   * Helper data structure holding the channel of a log file; the channel is
+   * replaced if an interrupt closes it, until the file is closed for good
+   */
+  private static class LogFile {
+
+    final Path path;
+    private volatile FileChannel channel;
+    private boolean closed;
+
+    LogFile(Path path, FileChannel channel) {
+      this.path = path;
+      this.channel = channel;
+    }
+
+    FileChannel channel() {
+      return channel;
+    }
+
+    /**
+     * @param failed the channel found closed
+     * @return an open channel on the log file
+     * @throws ClosedChannelException if the log file was closed for good
+     * @throws IOException if the log file cannot be reopened
+     */
+    synchronized FileChannel reopen(FileChannel failed) throws IOException {
+      if (closed) {
+        throw new ClosedChannelException();
+      }
+      if (channel == failed && !failed.isOpen()) {
+        logger.fine("Reopening log closed by an interrupt: " + path);
+        channel = FileChannel.open(path, READ, WRITE);
+      }
+      return channel;
+    }
+
+    synchronized void close() throws IOException {
+      closed = true;
+      channel.close();
+    }
+  }
+
+  /**
+   * Helper data structure locating a record in a log
+   */
+  private static class Entry {
+
+    final Name name;
+    final LogFile file;
+    final long offset;
+    final int length;
+    final long insertedAt;
+    final long expiresAt;
+
+    Entry(Name name, LogFile file, long offset, int length, long insertedAt, long expiresAt) {
+      this.name = name;
+      this.file = file;
+      this.offset = offset;
+      this.length = length;
+      this.insertedAt = insertedAt;
+      this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the size of the record in the log, including its header
+     */
+    int size() {
+      return HEADER_SIZE + length;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Predicate;
+
+/**
+ * Selector matching over an index sorted in NDN canonical name order; all names
+ * under an {@link Interest} prefix are contiguous in such an index so only
+ * candidate records are visited. The matching logic follows
+ * {@link ForLoopRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+final class NameIndexSelector {
+
+  private NameIndexSelector() {
+    // do not instantiate this class
+  }
+
+  /**
+   * @param index the sorted index to search
+   * @param interest the {@link Interest} to satisfy
+   * @param acceptable checks if a record is acceptable (e.g. fresh enough) for
+   * the {@link Interest}
+   * @param <T> the record type
+   * @return the record satisfying the {@link Interest} or null if none exists
+   */
+  static <T> T select(NavigableMap<Name, T> index, Interest interest, Predicate<T> acceptable) {
+    Name.Component selectedComponent = null;
+    T selected = null;
+    for (Map.Entry<Name, T> entry : index.tailMap(interest.getName(), true).entrySet()) {
+      if (!interest.getName().isPrefixOf(entry.getKey())) {
+        break;
+      }
+
+      if (!interest.matchesName(entry.getKey()) || !acceptable.test(entry.getValue())) {
+        continue;
+      }
+
+      if (hasNoChildSelector(interest)) {
+        // names are sorted so the first match is also the leftmost
+        return entry.getValue();
+      }
+
+      Name.Component component = getNextComponentAfterLastInterestComponent(entry.getKey(), interest);
+      if (selected == null) {
+        selectedComponent = component;
+        selected = entry.getValue();
+      } else if (interest.getChildSelector() == Interest.CHILD_SELECTOR_LEFT) {
+        // names are sorted so no later record can have a lesser component
+        break;
+      } else if (component.compare(selectedComponent) > 0) {
+        selectedComponent = component;
+        selected = entry.getValue();
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * @param name the name to check (e.g. /a/b/c)
+   * @param interest the interest to check from (e.g. /a/b)
+   * @return the next component from a name after specified Interest components
+   * (e.g. c); if the name is not longer than the Interest, return an empty
+   * component.
+   */
+  private static Name.Component getNextComponentAfterLastInterestComponent(Name name, Interest interest) {
+    if (name.size() > interest.getName().size()) {
+      return name.get(interest.getName().size());
+    } else {
+      return new Name.Component();
+    }
+  }
+
+  /**
+   * @param interest the {@link Interest} to check
+   * @return true if the {@link Interest} has no child selector
+   */
+  private static boolean hasNoChildSelector(Interest interest) {
+    return interest.getChildSelector() < 0;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Cancellation;
+import com.intel.jndn.utils.Repository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically call {@link Repository#cleanup()} off of the face thread; the
+ * repository must be thread-safe (e.g. {@link ConcurrentRepository}).
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class RepositorySweeper {
+
+  private static final Logger logger = Logger.getLogger(RepositorySweeper.class.getName());
+
+  private RepositorySweeper() {
+    // do not instantiate this class
+  }
+
+  /**
+   * Sweep the repository on a new daemon thread; the thread is stopped when
+   * the returned token is cancelled.
+   *
+   * @param repository the {@link Repository} to clean up
+   * @param intervalMs the time between sweeps, in milliseconds
+   * @return a token for stopping the sweeps
+   */
+  public static Cancellation sweep(Repository repository, long intervalMs) {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "repository-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Cancellation sweeps = sweep(repository, scheduler, intervalMs);
+    return () -> {
+      sweeps.cancel();
+      scheduler.shutdown();
+    };
+  }
+
+  /**
+   * Sweep the repository using an existing scheduler.
+   *
+   * @param repository the {@link Repository} to clean up
+   * @param scheduler the scheduler to run the sweeps on
+   * @param intervalMs the time between sweeps, in milliseconds
+   * @return a token for stopping the sweeps; the scheduler is not shut down
+   */
+  public static Cancellation sweep(Repository repository, ScheduledExecutorService scheduler, long intervalMs) {
+    ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        repository.cleanup();
+      } catch (RuntimeException e) {
+        // an exception would silently cancel all subsequent sweeps
+        logger.log(Level.WARNING, "Failed to clean up repository", e);
+      }
+    }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    return () -> future.cancel(false);
+  }
+}
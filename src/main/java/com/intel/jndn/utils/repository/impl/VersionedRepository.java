@@ -0,0 +1,250 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.KeyLocatorType;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.encoding.EncodingException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Store versioned {@link Data} packets (e.g. /obj/v=N/seg=K) in a
+ * {@link ConcurrentRepository} while tracking the newest version of each object
+ * prefix (e.g. /obj) incrementally; a rightmost-child {@link Interest} on an
+ * object prefix, the usual way to discover the latest version, is then answered
+ * with a single hash lookup instead of a search. The answer is always the
+ * leftmost packet of the newest version; this is the packet a search would
+ * select only if every child of the object prefix is a version. If the prefix
+ * also has unversioned children that sort after the versions (e.g. /obj/_meta),
+ * a search would select those instead, but this lookup ignores them.
+ * <p>
+ * Optionally, only the newest {@code maxVersions} versions of each object are
+ * retained; storing a newer version removes the packets of the oldest one and
+ * packets of versions older than all retained versions are ignored. Packets
+ * without a version component are stored as-is.
+ * <p>
+ * This class is thread-safe: lookups never lock, while puts are serialized to
+ * keep the version index consistent with the stored packets.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class VersionedRepository implements Repository {
+
+  private static final Logger logger = Logger.getLogger(VersionedRepository.class.getName());
+  private final ConcurrentRepository storage = new ConcurrentRepository();
+  private final Map<Name, History> histories = new ConcurrentHashMap<>();
+  private final int maxVersions;
+
+  /**
+   * Build a repository retaining all versions.
+   */
+  public VersionedRepository() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxVersions the number of newest versions to retain per object
+   */
+  public VersionedRepository(int maxVersions) {
+    if (maxVersions < 1) {
+      throw new IllegalArgumentException("At least one version must be retained: " + maxVersions);
+    }
+    this.maxVersions = maxVersions;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void put(Data data) {
+    Name name = data.getName();
+    int versionIndex = findVersionComponent(name);
+    if (versionIndex < 0) {
+      storage.put(data);
+      return;
+    }
+
+    long version;
+    try {
+      version = name.get(versionIndex).toVersion();
+    } catch (EncodingException e) {
+      storage.put(data);
+      return;
+    }
+
+    synchronized (histories) {
+      Name objectPrefix = name.getPrefix(versionIndex);
+      History history = histories.computeIfAbsent(objectPrefix, k -> new History());
+      if (history.retained.size() >= maxVersions && !history.retained.containsKey(version)
+              && version < history.retained.firstKey()) {
+        logger.fine("Ignoring packet older than the retained versions: " + name.toUri());
+        return;
+      }
+
+      storage.put(data);
+      history.retained.put(version, name.getPrefix(versionIndex + 1));
+      Latest latest = history.latest;
+      if (latest == null || version > latest.version
+              || (version == latest.version && name.compare(latest.data.getName()) <= 0)) {
+        history.latest = new Latest(version, data);
+      }
+
+      while (history.retained.size() > maxVersions) {
+        Map.Entry<Long, Name> oldest = history.retained.pollFirstEntry();
+        logger.fine("Removing old version: " + oldest.getValue().toUri());
+        storage.remove(oldest.getValue());
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Data get(Interest interest) throws DataNotFoundException {
+    Data latest = findLatest(interest);
+    return latest != null ? latest : storage.get(interest);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean satisfies(Interest interest) {
+    return findLatest(interest) != null || storage.satisfies(interest);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanup() {
+    storage.cleanup();
+    synchronized (histories) {
+      for (Map.Entry<Name, History> entry : histories.entrySet()) {
+        Latest latest = entry.getValue().latest;
+        if (latest != null && !storage.satisfies(exactInterest(latest.data.getName()))) {
+          // the indexed packet expired; search for the newest remaining one
+          entry.getValue().latest = search(entry.getKey());
+        }
+      }
+    }
+  }
+
+  /**
+   * @param objectPrefix the name of a versioned object, without the version
+   * component
+   * @return the newest version stored for the object or -1 if none is indexed
+   */
+  public long getLatestVersion(Name objectPrefix) {
+    History history = histories.get(objectPrefix);
+    Latest latest = history != null ? history.latest : null;
+    return latest != null ? latest.version : -1;
+  }
+
+  /**
+   * @param interest the {@link Interest} to check
+   * @return the leftmost packet of the newest version if the {@link Interest}
+   * asks for the rightmost child of an object prefix, null otherwise
+   */
+  private Data findLatest(Interest interest) {
+    if (interest.getChildSelector() != Interest.CHILD_SELECTOR_RIGHT
+            || interest.getMinSuffixComponents() >= 0
+            || interest.getMaxSuffixComponents() >= 0
+            || interest.getExclude().size() > 0
+            || interest.getKeyLocator().getType() != KeyLocatorType.NONE) {
+      return null;
+    }
+
+    History history = histories.get(interest.getName());
+    Latest latest = history != null ? history.latest : null;
+    if (latest == null || (interest.getMustBeFresh() && !latest.isFresh())) {
+      return null;
+    }
+    return latest.data;
+  }
+
+  /**
+   * @param objectPrefix the name of a versioned object
+   * @return the leftmost packet of the newest stored version or null if none
+   * is stored
+   */
+  private Latest search(Name objectPrefix) {
+    Interest interest = exactInterest(objectPrefix).setChildSelector(Interest.CHILD_SELECTOR_RIGHT);
+    try {
+      Data data = storage.get(interest);
+      Name.Component component = data.getName().get(objectPrefix.size());
+      return component.isVersion() ? new Latest(component.toVersion(), data) : null;
+    } catch (DataNotFoundException | EncodingException | IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  private static Interest exactInterest(Name name) {
+    Interest interest = new Interest(name);
+    interest.setMustBeFresh(false);
+    return interest;
+  }
+
+  /**
+   * @param name the name of a packet
+   * @return the index of the last version component or -1 if none exists
+   */
+  private static int findVersionComponent(Name name) {
+    for (int i = name.size() - 1; i >= 0; i--) {
+      if (name.get(i).isVersion()) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper data structure tracking the versions of one object; guarded by the
+   * histories lock except for reads of the latest version
+   */
+  private static class History {
+
+    final TreeMap<Long, Name> retained = new TreeMap<>();
+    volatile Latest latest;
+  }
+
+  /**
+   * Helper data structure: an immutable snapshot of the newest version
+   */
+  private static class Latest {
+
+    final long version;
+    final Data data;
+    final long expiresAt;
+
+    Latest(long version, Data data) {
+      this.version = version;
+      this.data = data;
+      double period = data.getMetaInfo().getFreshnessPeriod();
+      this.expiresAt = period < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + (long) period;
+    }
+
+    boolean isFresh() {
+      return expiresAt > System.currentTimeMillis();
+    }
+  }
+}
@@ -13,10 +13,16 @@
  */
 package com.intel.jndn.utils.server;
 
+import com.intel.jndn.utils.Repository;
 import com.intel.jndn.utils.Server;
 import net.named_data.jndn.Data;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Defines the API for a {@link Server} producing {@link Data} packets and
@@ -34,6 +40,40 @@ public interface RepositoryServer extends Server {
    * @throws IOException if the underlying server fails to store the packet
    */
   void serve(Data data) throws IOException;
+
+  /**
+   * Store a batch of {@link Data} packets in the server's repository until
+   * requested.
+   *
+   * @param packets the {@link Data} packets to store and serve
+   * @throws IOException if the underlying server fails to store the packets
+   */
+  default void serveAll(Collection<? extends Data> packets) throws IOException {
+    for (Data data : packets) {
+      serve(data);
+    }
+  }
+
+  /**
+   * Store a stream of {@link Data} packets in the server's repository until
+   * requested, passing them to {@link #serveAll(Collection)} in batches of at
+   * most {@link Repository#STREAM_BATCH_SIZE} packets so that the stream is
+   * never held in memory at once.
+   *
+   * @param packets the {@link Data} packets to store and serve
+   * @throws IOException if the underlying server fails to store the packets
+   */
+  default void serveAll(Stream<? extends Data> packets) throws IOException {
+    List<Data> batch = new ArrayList<>(Repository.STREAM_BATCH_SIZE);
+    Iterator<? extends Data> iterator = packets.iterator();
+    while (iterator.hasNext()) {
+      batch.add(iterator.next());
+      if (batch.size() == Repository.STREAM_BATCH_SIZE || !iterator.hasNext()) {
+        serveAll(batch);
+        batch = new ArrayList<>(Repository.STREAM_BATCH_SIZE);
+      }
+    }
+  }
   
   /**
    * Clean up stale {@link Data} packets from the underlying content store.
@@ -0,0 +1,143 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.server.impl;
+
+import com.intel.jndn.utils.ProcessingStageException;
+import com.intel.jndn.utils.Repository;
+import com.intel.jndn.utils.SegmentSizePolicy;
+import com.intel.jndn.utils.impl.ManifestHelper;
+import com.intel.jndn.utils.impl.SegmentationHelper;
+import com.intel.jndn.utils.repository.impl.ConcurrentRepository;
+import com.intel.jndn.utils.server.RepositoryServer;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.InterestFilter;
+import net.named_data.jndn.Name;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of a {@link RepositoryServer} that segments packets and signs
+ * them once per object with manifests (see {@link ManifestHelper}): each
+ * segment is signed with a SHA-256 digest only and the post-processing stages
+ * (e.g. a {@link com.intel.jndn.utils.processing.impl.SigningStage}) run only
+ * on the manifests, once when packets are served. Stored packets are then sent
+ * as-is, without processing each Interest.
+ * <p>
+ * Retrieve the packets with a
+ * {@link com.intel.jndn.utils.client.impl.ManifestClient}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ManifestServer extends ServerBaseImpl implements RepositoryServer {
+
+  private static final Logger logger = Logger.getLogger(ManifestServer.class.getName());
+  private final Repository repository;
+  private volatile SegmentSizePolicy segmentSizePolicy = SegmentSizePolicy.fixed(SegmentationHelper.DEFAULT_SEGMENT_SIZE);
+
+  /**
+   * {@inheritDoc}
+   */
+  public ManifestServer(Face face, Name prefix) {
+    this(face, prefix, new ConcurrentRepository());
+  }
+
+  /**
+   * Build the server with a custom {@link Repository}; the repository must be
+   * thread-safe if packets are served while the face is processing events.
+   *
+   * @param face a {@link Face} allowing prefix registration
+   * @param prefix the {@link Name} to register
+   * @param repository the {@link Repository} storing the segments and manifests
+   * to serve
+   */
+  public ManifestServer(Face face, Name prefix, Repository repository) {
+    super(face, prefix);
+    this.repository = repository;
+  }
+
+  /**
+   * Set the policy sizing the segments of packets served after this call; the
+   * default policy uses {@link SegmentationHelper#DEFAULT_SEGMENT_SIZE}.
+   *
+   * @param segmentSizePolicy the policy deciding the content size of segments
+   */
+  public void setSegmentSizePolicy(SegmentSizePolicy segmentSizePolicy) {
+    this.segmentSizePolicy = segmentSizePolicy;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Every packet is segmented, even if its content fits in one segment, so
+   * that it is always retrieved through its manifest.
+   */
+  @Override
+  public void serve(Data data) throws IOException {
+    if (!isRegistered()) {
+      register();
+    }
+
+    List<Data> segments = SegmentationHelper.segment(data, data.getContent(), segmentSizePolicy.segmentSize(data));
+    if (segments.isEmpty()) {
+      Data empty = new Data(data);
+      empty.getName().appendSegment(0);
+      empty.getMetaInfo().setFinalBlockId(empty.getName().get(-1));
+      segments.add(empty);
+    }
+    for (Data segment : segments) {
+      ManifestHelper.signWithDigest(segment);
+    }
+
+    List<Data> packets = new ArrayList<>(segments);
+    for (Data manifest : ManifestHelper.buildManifests(data, segments, ManifestHelper.DEFAULT_DIGESTS_PER_MANIFEST)) {
+      try {
+        packets.add(processPipeline(manifest));
+      } catch (ProcessingStageException e) {
+        throw new IOException("Failed to process manifest: " + manifest.getName().toUri(), e);
+      }
+    }
+
+    logger.fine("Adding " + segments.size() + " segments and " + (packets.size() - segments.size()) + " manifests: "
+            + data.getName().toUri());
+    repository.putAll(packets);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onInterest(Name prefix, Interest interest, Face face, long interestFilterId, InterestFilter filter) {
+    logger.finer("Serving packet for: " + interest.toUri());
+
+    try {
+      face.send(repository.getEncoded(interest));
+    } catch (Exception e) {
+      logger.log(Level.FINE, "Failed to find data satisfying: " + interest.toUri(), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanup() {
+    repository.cleanup();
+  }
+}
@@ -13,9 +13,12 @@
  */
 package com.intel.jndn.utils.server.impl;
 
+import com.intel.jndn.utils.ProcessingStageException;
 import com.intel.jndn.utils.Repository;
+import com.intel.jndn.utils.SegmentSizePolicy;
+import com.intel.jndn.utils.impl.FileSegmentSource;
 import com.intel.jndn.utils.impl.SegmentationHelper;
-import com.intel.jndn.utils.repository.impl.ForLoopRepository;
+import com.intel.jndn.utils.repository.impl.ConcurrentRepository;
 import com.intel.jndn.utils.server.RepositoryServer;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
@@ -24,29 +27,76 @@ import net.named_data.jndn.InterestFilter;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.encoding.EncodingException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Implementation of a {@link RepositoryServer} that segments packets stored in
- * its repository.
+ * its repository. Files may also be served with
+ * {@link #serve(FileSegmentSource)}; their segments are built on demand from the
+ * mapped file instead of being stored. File segments and packets served with
+ * {@link #serveByOffset(Data)} may also be requested by byte offset (marker
+ * 0xFB) so that consumers can read from any position without fetching the
+ * preceding segments.
+ * <p>
+ * By default, the post-processing stages (e.g. signing) run on each packet
+ * served, on the thread processing the face events. When built with an ingest
+ * {@link ForkJoinPool}, the stages instead run once per segment in parallel
+ * when packets are served, and stored segments are sent as-is.
  *
  * @author Andrew Brown, andrew.brown@intel.com
  */
 public class SegmentedServer extends ServerBaseImpl implements RepositoryServer {
 
   private static final Logger logger = Logger.getLogger(SegmentedServer.class.getName());
-  private final Repository repository = new ForLoopRepository();
+  private final Repository repository;
+  private final Map<Name, FileSegmentSource> files = new ConcurrentHashMap<>();
+  private final Map<Name, OffsetPacket> offsetPackets = new ConcurrentHashMap<>();
+  private final ForkJoinPool ingestPool;
+  private volatile SegmentSizePolicy segmentSizePolicy = SegmentSizePolicy.fixed(SegmentationHelper.DEFAULT_SEGMENT_SIZE);
 
   /**
    * {@inheritDoc}
    */
   public SegmentedServer(Face face, Name prefix) {
+    this(face, prefix, new ConcurrentRepository());
+  }
+
+  /**
+   * Build the server with a custom {@link Repository}; the repository must be
+   * thread-safe if packets are served while the face is processing events.
+   *
+   * @param face a {@link Face} allowing prefix registration
+   * @param prefix the {@link Name} to register
+   * @param repository the {@link Repository} storing the segments to serve
+   */
+  public SegmentedServer(Face face, Name prefix, Repository repository) {
+    this(face, prefix, repository, null);
+  }
+
+  /**
+   * Build the server to run the post-processing stages when packets are
+   * served instead of when they are requested; the stages must be thread-safe.
+   *
+   * @param face a {@link Face} allowing prefix registration
+   * @param prefix the {@link Name} to register
+   * @param repository the {@link Repository} storing the segments to serve
+   * @param ingestPool the {@link ForkJoinPool} processing segments in parallel
+   * or null to process packets when requested
+   */
+  public SegmentedServer(Face face, Name prefix, Repository repository, ForkJoinPool ingestPool) {
     super(face, prefix);
+    this.repository = repository;
+    this.ingestPool = ingestPool;
   }
 
   /**
@@ -58,19 +108,132 @@ public class SegmentedServer extends ServerBaseImpl implements RepositoryServer
       register();
     }
 
-    if (data.getContent().size() >= SegmentationHelper.DEFAULT_SEGMENT_SIZE) {
-      InputStream stream = new ByteArrayInputStream(data.getContent().getImmutableArray());
-      List<Data> segments = SegmentationHelper.segment(data, stream);
-      for (Data segment : segments) {
-        logger.fine("Adding segment: " + segment.getName().toUri());
-        repository.put(segment);
-      }
+    int segmentSize = segmentSizePolicy.segmentSize(data);
+    if (data.getContent().size() >= segmentSize) {
+      List<Data> segments = segment(data, segmentSize);
+      logger.fine("Adding " + segments.size() + " segments: " + data.getName().toUri());
+      repository.putAll(ingest(segments));
+    } else if (processesOnIngest()) {
+      logger.fine("Adding segment: " + data.getName().toUri());
+      repository.putAll(ingest(Collections.singletonList(data)));
     } else {
       logger.fine("Adding segment: " + data.getName().toUri());
       repository.put(data);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serveAll(Collection<? extends Data> packets) throws IOException {
+    if (!isRegistered()) {
+      register();
+    }
+
+    List<Data> segments = new ArrayList<>(packets.size());
+    for (Data data : packets) {
+      int segmentSize = segmentSizePolicy.segmentSize(data);
+      if (data.getContent().size() >= segmentSize) {
+        segments.addAll(segment(data, segmentSize));
+      } else {
+        segments.add(data);
+      }
+    }
+    logger.fine("Adding " + segments.size() + " segments for " + packets.size() + " packets");
+    repository.putAll(ingest(segments));
+  }
+
+  /**
+   * @return true if the post-processing stages run when packets are served
+   */
+  private boolean processesOnIngest() {
+    return ingestPool != null && hasPostProcessingStages();
+  }
+
+  /**
+   * @param segments the segments to store, in order
+   * @return the segments processed in parallel if processing on ingest,
+   * otherwise the segments unchanged
+   * @throws IOException if a post-processing stage fails
+   */
+  private List<Data> ingest(List<Data> segments) throws IOException {
+    if (!processesOnIngest()) {
+      return segments;
+    }
+    try {
+      return processPipeline(segments, ingestPool);
+    } catch (ProcessingStageException e) {
+      throw new IOException("Failed to process segments", e);
+    }
+  }
+
+  /**
+   * Serve the segments of a file under the name of the source; segments are
+   * built when requested so the file content is never held in the heap or in
+   * the repository. Serving another source with the same name replaces it.
+   *
+   * @param source the segmented file to serve
+   * @throws IOException if the server fails to register its prefix
+   */
+  public void serve(FileSegmentSource source) throws IOException {
+    if (!isRegistered()) {
+      register();
+    }
+
+    logger.fine("Adding " + source.getSegmentCount() + " file segments: " + source.getName().toUri());
+    files.put(new Name(source.getName()), source);
+  }
+
+  /**
+   * Serve the content of a packet segmented by byte offset: an Interest for
+   * the packet name followed by any offset component is answered with the
+   * content starting at that offset (see
+   * {@link SegmentationHelper#segmentAtOffset(Data, ByteBuffer, long, int)}).
+   * The packet is kept as-is and its segments are built when requested.
+   * Serving another packet with the same name replaces it.
+   *
+   * @param data the {@link Data} packet to serve
+   * @throws IOException if the server fails to register its prefix
+   */
+  public void serveByOffset(Data data) throws IOException {
+    if (!isRegistered()) {
+      register();
+    }
+
+    logger.fine("Adding " + data.getContent().size() + " bytes by offset: " + data.getName().toUri());
+    offsetPackets.put(new Name(data.getName()), new OffsetPacket(data, segmentSizePolicy.segmentSize(data)));
+  }
+
+  /**
+   * Stop serving a file or a packet served by byte offset; this does not close
+   * a file source.
+   *
+   * @param name the name of the served {@link FileSegmentSource} or packet
+   * @return true if something was served with that name
+   */
+  public boolean unserve(Name name) {
+    boolean removedFile = files.remove(name) != null;
+    boolean removedPacket = offsetPackets.remove(name) != null;
+    return removedFile || removedPacket;
+  }
+
+  /**
+   * Set the policy sizing the segments of packets served after this call; the
+   * default policy uses {@link SegmentationHelper#DEFAULT_SEGMENT_SIZE}. Size
+   * {@link FileSegmentSource} segments when building the source.
+   *
+   * @param segmentSizePolicy the policy deciding the content size of segments,
+   * e.g. a {@link com.intel.jndn.utils.impl.PacketSizePolicy}
+   */
+  public void setSegmentSizePolicy(SegmentSizePolicy segmentSizePolicy) {
+    this.segmentSizePolicy = segmentSizePolicy;
+  }
+
+  private static List<Data> segment(Data data, int segmentSize) {
+    return SegmentationHelper.segment(data, data.getContent(), segmentSize);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -87,14 +250,64 @@ public class SegmentedServer extends ServerBaseImpl implements RepositoryServer
     }
 
     try {
-      Data data = repository.get(interest);
-      data = processPipeline(data);
-      face.putData(data);
+      Data segment = buildSegment(interest);
+      if (segment != null) {
+        face.putData(processPipeline(segment));
+      } else if (hasPostProcessingStages() && ingestPool == null) {
+        Data data = repository.get(interest);
+        data = processPipeline(data);
+        face.putData(data);
+      } else {
+        // skip decoding and re-encoding when the repository holds encoded packets
+        face.send(repository.getEncoded(interest));
+      }
     } catch (Exception e) {
       logger.log(Level.FINE, "Failed to find data satisfying: " + interest.toUri(), e);
     }
   }
 
+  /**
+   * @param interest the incoming {@link Interest}
+   * @return the file or byte-offset segment named by the Interest, the first
+   * segment if the Interest names a served file or packet, or null if nothing
+   * served on demand matches
+   * @throws EncodingException if the segment component cannot be decoded
+   */
+  private Data buildSegment(Interest interest) throws EncodingException {
+    if ((files.isEmpty() && offsetPackets.isEmpty()) || interest.getName().size() == 0) {
+      return null;
+    }
+
+    Name name = interest.getName();
+    FileSegmentSource source = files.get(name);
+    if (source != null) {
+      return source.getSegment(0);
+    }
+    OffsetPacket packet = offsetPackets.get(name);
+    if (packet != null) {
+      return packet.segmentAtOffset(0);
+    }
+
+    Name.Component last = name.get(-1);
+    if (last.isSegment()) {
+      source = files.get(name.getPrefix(-1));
+      if (source != null && last.toSegment() < source.getSegmentCount()) {
+        return source.getSegment(last.toSegment());
+      }
+    } else if (last.isSegmentOffset()) {
+      long offset = last.toSegmentOffset();
+      source = files.get(name.getPrefix(-1));
+      if (source != null && offset < Math.max(source.getSize(), 1)) {
+        return source.getSegmentAtOffset(offset);
+      }
+      packet = offsetPackets.get(name.getPrefix(-1));
+      if (packet != null && offset < Math.max(packet.data.getContent().size(), 1)) {
+        return packet.segmentAtOffset(offset);
+      }
+    }
+    return null;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -102,4 +315,23 @@ public class SegmentedServer extends ServerBaseImpl implements RepositoryServer
   public void cleanup() {
     repository.cleanup();
   }
+
+  /**
+   * Helper data structure: a packet served by byte offset
+   */
+  private static class OffsetPacket {
+
+    final Data data;
+    final int segmentSize;
+
+    OffsetPacket(Data data, int segmentSize) {
+      this.data = data;
+      this.segmentSize = segmentSize;
+    }
+
+    Data segmentAtOffset(long offset) {
+      ByteBuffer content = data.getContent().isNull() ? ByteBuffer.allocate(0) : data.getContent().buf();
+      return SegmentationHelper.segmentAtOffset(data, content, offset, segmentSize);
+    }
+  }
 }
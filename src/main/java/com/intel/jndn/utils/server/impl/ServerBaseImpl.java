@@ -16,6 +16,7 @@ package com.intel.jndn.utils.server.impl;
 import com.intel.jndn.utils.ProcessingStage;
 import com.intel.jndn.utils.ProcessingStageException;
 import com.intel.jndn.utils.Server;
+import com.intel.jndn.utils.impl.FaceReactor;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.ForwardingFlags;
@@ -25,7 +26,11 @@ import net.named_data.jndn.encoding.EncodingException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +43,7 @@ public abstract class ServerBaseImpl implements Server {
 
   public static final long UNREGISTERED = -1;
   private static final Logger logger = Logger.getLogger(ServerBaseImpl.class.getName());
+  private static final int PARALLEL_BATCH_SIZE = 4;
   private final Face face;
   private final Name prefix;
   private final List<ProcessingStage> pipeline = new ArrayList<>();
@@ -80,23 +86,20 @@ public abstract class ServerBaseImpl implements Server {
   }
 
   /**
-   * Register a prefix for responding to interests.
+   * Register a prefix for responding to interests; if a {@link FaceReactor}
+   * owns the face, the registration runs on the reactor thread.
    *
    * @throws java.io.IOException if IO fails
    */
   public void register() throws IOException {
-    try {
-      registeredPrefixId = face.registerPrefix(prefix, this, new OnRegisterFailed() {
-        @Override
-        public void onRegisterFailed(Name prefix) {
-          registeredPrefixId = UNREGISTERED;
-          logger.log(Level.SEVERE, "Failed to register prefix: " + prefix.toUri());
-        }
-      }, new ForwardingFlags());
-      logger.log(Level.FINER, "Registered a new prefix: " + prefix.toUri());
-    } catch (net.named_data.jndn.security.SecurityException e) {
-      throw new IOException("Failed to communicate to face due to security error", e);
-    }
+    registeredPrefixId = FaceReactor.await(FaceReactor.call(face, f -> f.registerPrefix(prefix, this, new OnRegisterFailed() {
+      @Override
+      public void onRegisterFailed(Name prefix) {
+        registeredPrefixId = UNREGISTERED;
+        logger.log(Level.SEVERE, "Failed to register prefix: " + prefix.toUri());
+      }
+    }, new ForwardingFlags())));
+    logger.log(Level.FINER, "Registered a new prefix: " + prefix.toUri());
   }
 
   /**
@@ -107,6 +110,14 @@ public abstract class ServerBaseImpl implements Server {
     pipeline.add(pipelineStage);
   }
 
+  /**
+   * @return true if packets must be run through {@link #processPipeline(Data)}
+   * before sending
+   */
+  protected boolean hasPostProcessingStages() {
+    return !pipeline.isEmpty();
+  }
+
   /**
    * Process the {@link Data} before sending it; this runs the packet through
    * each registered {@link ProcessingStage} in order.
@@ -123,8 +134,31 @@ public abstract class ServerBaseImpl implements Server {
     return data;
   }
 
+  /**
+   * Process many packets in parallel; each packet runs through the registered
+   * stages as in {@link #processPipeline(Data)}, so the stages must be
+   * thread-safe.
+   *
+   * @param packets the {@link Data} packets to process
+   * @param pool the {@link ForkJoinPool} running the stages
+   * @return the processed packets, in the same order as passed in
+   * @throws ProcessingStageException if a pipeline stage fails for any packet
+   */
+  public List<Data> processPipeline(List<Data> packets, ForkJoinPool pool) throws ProcessingStageException {
+    Data[] processed = packets.toArray(new Data[packets.size()]);
+    AtomicReference<ProcessingStageException> failure = new AtomicReference<>();
+    pool.invoke(new PipelineTask(this, processed, 0, processed.length, failure));
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return Arrays.asList(processed);
+  }
+
   /**
    * {@inheritDoc}
+   * <p>
+   * If a {@link FaceReactor} owns the face, the reactor already serves packets
+   * and this returns once the prefix is registered.
    */
   @Override
   public void run() {
@@ -136,6 +170,10 @@ public abstract class ServerBaseImpl implements Server {
       }
     }
 
+    if (FaceReactor.forFace(face) != null) {
+      return;
+    }
+
     // continuously serve packets
     while (true) {
       try {
@@ -149,4 +187,44 @@ public abstract class ServerBaseImpl implements Server {
       }
     }
   }
+
+  /**
+   * Helper task: process a range of packets in place, splitting the range until
+   * it is small enough to process on one thread; once a packet fails, the
+   * remaining packets are skipped; tasks are never serialized
+   */
+  private static class PipelineTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final transient ServerBaseImpl server;
+    private final transient Data[] packets;
+    private final int from;
+    private final int to;
+    private final AtomicReference<ProcessingStageException> failure;
+
+    PipelineTask(ServerBaseImpl server, Data[] packets, int from, int to, AtomicReference<ProcessingStageException> failure) {
+      this.server = server;
+      this.packets = packets;
+      this.from = from;
+      this.to = to;
+      this.failure = failure;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > PARALLEL_BATCH_SIZE) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new PipelineTask(server, packets, from, middle, failure), new PipelineTask(server, packets, middle, to, failure));
+        return;
+      }
+
+      for (int i = from; i < to && failure.get() == null; i++) {
+        try {
+          packets[i] = server.processPipeline(packets[i]);
+        } catch (ProcessingStageException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+  }
 }
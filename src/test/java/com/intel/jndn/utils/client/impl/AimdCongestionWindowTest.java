@@ -0,0 +1,91 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test AimdCongestionWindow
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class AimdCongestionWindowTest {
+
+  @Test
+  public void testSlowStartThenAdditiveIncrease() {
+    AimdCongestionWindow instance = new AimdCongestionWindow(1, 100, 0.5);
+    for (int i = 0; i < 7; i++) {
+      instance.onSent(i);
+      instance.onData(i);
+    }
+    assertEquals(8, instance.size());
+
+    instance.onSent(7);
+    instance.onLoss(7);
+    assertEquals(4, instance.size());
+    assertEquals(4.0, instance.threshold(), 0.0);
+
+    // one segment per window of segments received
+    for (int i = 8; i < 12; i++) {
+      instance.onSent(i);
+      instance.onData(i);
+    }
+    assertEquals(4, instance.size());
+    instance.onData(12);
+    assertEquals(5, instance.size());
+  }
+
+  @Test
+  public void testConservativeDecrease() {
+    AimdCongestionWindow instance = new AimdCongestionWindow(16, 100, 0.5);
+    for (int i = 0; i < 16; i++) {
+      instance.onSent(i);
+    }
+
+    // all losses from the window sent before the first decrease count once
+    for (int i = 0; i < 16; i++) {
+      instance.onLoss(i);
+    }
+    assertEquals(8, instance.size());
+    assertEquals(1, instance.decreaseCount());
+
+    instance.onSent(16);
+    instance.onLoss(16);
+    assertEquals(4, instance.size());
+    assertEquals(2, instance.decreaseCount());
+  }
+
+  @Test
+  public void testBounds() {
+    AimdCongestionWindow instance = new AimdCongestionWindow(1, 4, 0.5);
+    for (int i = 0; i < 10; i++) {
+      instance.onSent(i);
+      instance.onData(i);
+    }
+    assertEquals(4, instance.size());
+
+    for (int i = 10; i < 20; i++) {
+      instance.onSent(i);
+      instance.onLoss(i);
+    }
+    assertEquals(1, instance.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDecreaseFactor() {
+    new AimdCongestionWindow(1, 4, 1.5);
+  }
+}
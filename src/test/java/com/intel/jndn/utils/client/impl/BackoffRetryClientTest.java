@@ -24,6 +24,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.Assert.assertEquals;
@@ -62,4 +65,29 @@ public class BackoffRetryClientTest {
 
     assertEquals(1, timeouts.get());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void retryFromEstimatedTimeout() throws Exception {
+    Face face = mock(Face.class);
+    List<Double> lifetimes = new ArrayList<>();
+    ArgumentCaptor<Interest> interestCaptor = ArgumentCaptor.forClass(Interest.class);
+    ArgumentCaptor<OnTimeout> onTimeoutCaptor = ArgumentCaptor.forClass(OnTimeout.class);
+    when(face.expressInterest(interestCaptor.capture(), any(), onTimeoutCaptor.capture())).then(invocation -> {
+      lifetimes.add(interestCaptor.getValue().getInterestLifetimeMilliseconds());
+      onTimeoutCaptor.getValue().onTimeout(interestCaptor.getValue());
+      return -1L;
+    });
+    RttEstimator estimator = new RttEstimator(100, 1, 1000);
+    estimator.addSample(10); // 30ms timeout
+    AtomicInteger timeouts = new AtomicInteger();
+
+    Interest interest = new Interest(new Name("/backoff/test"), 2000);
+
+    new BackoffRetryClient(500, 2, estimator).retry(face, interest, null, interest1 -> timeouts.incrementAndGet());
+
+    assertEquals(Arrays.asList(30.0, 60.0, 120.0, 240.0, 480.0), lifetimes);
+    assertEquals(1, timeouts.get());
+    assertEquals(960.0, estimator.getRto());
+    assertEquals(2000.0, interest.getInterestLifetimeMilliseconds());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.utils.Client;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test CachingClient
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CachingClientTest {
+
+  private final Face face = new MockFace();
+  private Client client;
+
+  @Before
+  public void before() throws Exception {
+    client = mock(Client.class);
+    when(client.getAsync(any(Face.class), any(Interest.class))).thenAnswer(invocation -> {
+      Interest interest = invocation.getArgument(1);
+      Data data = new Data(new Name(interest.getName()).append("v1"));
+      data.setContent(new Blob("..."));
+      String last = interest.getName().get(-1).toEscapedString();
+      data.getMetaInfo().setFreshnessPeriod(last.equals("short") ? 1 : last.equals("unset") ? -1 : 60000);
+      return CompletableFuture.completedFuture(data);
+    });
+  }
+
+  @Test
+  public void testRepeatedRequestsHitCache() throws Exception {
+    CachingClient instance = new CachingClient(client);
+    Data first = instance.getSync(face, new Name("/test/config"));
+    Data second = instance.getAsync(face, new Name("/test/config")).get();
+    Data byName = instance.getAsync(face, new Name("/test/config/v1")).get();
+
+    assertEquals(first.wireEncode(), second.wireEncode());
+    assertEquals(first.wireEncode(), byName.wireEncode());
+    assertNotSame(second, byName); // callers may modify the packets they get
+    assertEquals(1, instance.missCount());
+    assertEquals(2, instance.hitCount());
+    assertEquals(2, instance.size());
+  }
+
+  @Test
+  public void testSelectorsBypassCache() throws Exception {
+    CachingClient instance = new CachingClient(client);
+    instance.getAsync(face, new Name("/test/config")).get();
+
+    Interest rightmost = new Interest(new Name("/test/config"));
+    rightmost.setChildSelector(Interest.CHILD_SELECTOR_RIGHT);
+    instance.getAsync(face, rightmost).get();
+    Interest bounded = new Interest(new Name("/test/config"));
+    bounded.setMaxSuffixComponents(2);
+    instance.getAsync(face, bounded).get();
+
+    assertEquals(0, instance.hitCount());
+    assertEquals(3, instance.missCount());
+  }
+
+  @Test
+  public void testMustBeFresh() throws Exception {
+    CachingClient instance = new CachingClient(client);
+    instance.getAsync(face, new Name("/test/short")).get();
+    Thread.sleep(5);
+
+    Interest stale = new Interest(new Name("/test/short"));
+    stale.setMustBeFresh(false);
+    instance.getAsync(face, stale).get();
+    assertEquals(1, instance.hitCount());
+
+    Interest fresh = new Interest(new Name("/test/short"));
+    fresh.setMustBeFresh(true);
+    instance.getAsync(face, fresh).get();
+    assertEquals(1, instance.hitCount());
+    assertEquals(2, instance.missCount());
+  }
+
+  @Test
+  public void testNoFreshnessPeriodIsNeverFresh() throws Exception {
+    CachingClient instance = new CachingClient(client);
+    instance.getAsync(face, new Name("/test/unset")).get();
+
+    Interest fresh = new Interest(new Name("/test/unset"));
+    fresh.setMustBeFresh(true);
+    instance.getAsync(face, fresh).get();
+    assertEquals(0, instance.hitCount());
+
+    Interest any = new Interest(new Name("/test/unset"));
+    any.setMustBeFresh(false);
+    instance.getAsync(face, any).get();
+    assertEquals(1, instance.hitCount());
+  }
+
+  @Test
+  public void testByteLimitEviction() throws Exception {
+    CachingClient instance = new CachingClient(SimpleClient.DEFAULT_SLEEP_TIME, SimpleClient.DEFAULT_TIMEOUT, client, 100, 9);
+    instance.getAsync(face, new Name("/test/a")).get(); // caches /test/a and /test/a/v1, 3 bytes each
+    instance.getAsync(face, new Name("/test/b")).get(); // evicts /test/a
+
+    assertEquals(3, instance.size());
+    assertEquals(9, instance.sizeInBytes());
+
+    CachingClient tiny = new CachingClient(SimpleClient.DEFAULT_SLEEP_TIME, SimpleClient.DEFAULT_TIMEOUT, client, 100, 2);
+    tiny.getAsync(face, new Name("/test/a")).get();
+    assertEquals(0, tiny.size());
+    assertEquals(0, tiny.sizeInBytes());
+  }
+
+  @Test
+  public void testLruEviction() throws Exception {
+    CachingClient instance = new CachingClient(SimpleClient.DEFAULT_SLEEP_TIME, SimpleClient.DEFAULT_TIMEOUT, client, 4);
+    instance.getAsync(face, new Name("/test/a/v1")).get(); // caches /test/a/v1 and /test/a/v1/v1
+    instance.getAsync(face, new Name("/test/b/v1")).get();
+    instance.getAsync(face, new Name("/test/a/v1")).get(); // refreshes /test/a/v1
+    instance.getAsync(face, new Name("/test/c/v1")).get(); // evicts /test/a/v1/v1 and /test/b/v1
+
+    assertEquals(4, instance.size());
+    assertEquals(1, instance.hitCount());
+    instance.getAsync(face, new Name("/test/a/v1")).get();
+    assertEquals(2, instance.hitCount());
+    instance.getAsync(face, new Name("/test/b/v1")).get();
+    assertEquals(2, instance.hitCount());
+
+    instance.clear();
+    assertEquals(0, instance.size());
+    assertEquals(0, instance.sizeInBytes());
+  }
+}
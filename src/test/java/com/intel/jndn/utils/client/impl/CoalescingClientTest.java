@@ -0,0 +1,106 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.utils.Client;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test CoalescingClient
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CoalescingClientTest {
+
+  private final Name name = new Name("/test/coalescing/client");
+  private Client client;
+  private CompletableFuture<Data> pending;
+  private CoalescingClient instance;
+
+  @Before
+  public void before() throws Exception {
+    client = mock(Client.class);
+    pending = new CompletableFuture<>();
+    when(client.getAsync(any(Face.class), any(Interest.class))).thenReturn(pending);
+    instance = new CoalescingClient(client);
+  }
+
+  @Test
+  public void testCoalesceIdenticalRequests() throws Exception {
+    Face face = new MockFace();
+    CompletableFuture<Data> first = instance.getAsync(face, new Interest(name, 1000));
+    CompletableFuture<Data> second = instance.getAsync(face, new Interest(name, 2000));
+    assertNotSame(first, second);
+    assertEquals(1, instance.inFlightCount());
+    verify(client, times(1)).getAsync(any(Face.class), any(Interest.class));
+
+    pending.complete(new Data(name));
+    assertEquals(name, first.get().getName());
+    assertEquals(name, second.get().getName());
+    assertEquals(0, instance.inFlightCount());
+
+    instance.getAsync(face, name);
+    verify(client, times(2)).getAsync(any(Face.class), any(Interest.class));
+  }
+
+  @Test
+  public void testDistinctRequests() throws Exception {
+    Face face = new MockFace();
+    Interest fresh = new Interest(name);
+    fresh.setMustBeFresh(true);
+    Interest stale = new Interest(name);
+    stale.setMustBeFresh(false);
+
+    instance.getAsync(face, fresh);
+    instance.getAsync(face, stale);
+    instance.getAsync(new MockFace(), fresh);
+    instance.getAsync(face, new Interest(new Name(name).append("other")));
+    assertEquals(4, instance.inFlightCount());
+    verify(client, times(4)).getAsync(any(Face.class), any(Interest.class));
+  }
+
+  @Test
+  public void testSharedFailure() throws Exception {
+    Face face = new MockFace();
+    CompletableFuture<Data> first = instance.getAsync(face, name);
+    CompletableFuture<Data> second = instance.getAsync(face, name);
+    first.cancel(true);
+
+    pending.completeExceptionally(new TimeoutException());
+    try {
+      second.get();
+      fail("The request should fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertEquals(0, instance.inFlightCount());
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.utils.TestHelper;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test CompositeContent
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class CompositeContentTest {
+
+  private final Name name = new Name("/composite/content");
+
+  private CompositeContent build(String... contents) {
+    Data[] packets = new Data[contents.length];
+    for (int i = 0; i < contents.length; i++) {
+      packets[i] = TestHelper.buildData(new Name(name).appendSegment(i), contents[i]);
+    }
+    return new CompositeContent(packets);
+  }
+
+  @Test
+  public void testGetAcrossPackets() {
+    CompositeContent instance = build("ab", "", "cde", "", "f");
+    assertEquals(6, instance.size());
+    StringBuilder read = new StringBuilder();
+    for (long i = 0; i < instance.size(); i++) {
+      read.append((char) instance.get(i));
+    }
+    assertEquals("abcdef", read.toString());
+  }
+
+  @Test
+  public void testReadSpanningPackets() {
+    CompositeContent instance = build("ab", "cde", "f");
+    ByteBuffer destination = ByteBuffer.allocate(3);
+    assertEquals(3, instance.read(1, destination));
+    assertEquals("bcd", new String(destination.array()));
+
+    destination = ByteBuffer.allocate(10);
+    assertEquals(2, instance.read(4, destination));
+    assertEquals(-1, instance.read(6, destination));
+  }
+
+  @Test
+  public void testStreamAndBuffers() throws Exception {
+    CompositeContent instance = build("ab", "cde", "f");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = instance.asInputStream()) {
+      byte[] bytes = new byte[4];
+      int read;
+      while ((read = in.read(bytes)) != -1) {
+        out.write(bytes, 0, read);
+      }
+    }
+    assertEquals("abcdef", out.toString());
+
+    ByteBuffer[] buffers = instance.buffers();
+    assertEquals(3, buffers.length);
+    assertTrue(buffers[1].isReadOnly());
+    assertEquals(3, buffers[1].remaining());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    build("ab").get(2);
+  }
+}
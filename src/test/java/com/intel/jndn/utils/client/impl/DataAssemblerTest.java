@@ -18,9 +18,11 @@ import net.named_data.jndn.Data;
 import net.named_data.jndn.Name;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test that segment data packets are re-assembled correctly.
@@ -67,6 +69,31 @@ public class DataAssemblerTest {
     assertEquals("", reassembled.getContent().toString());
   }
 
+  @Test
+  public void testReassembleDirect() throws InterruptedException, ExecutionException {
+    Name name = new Name("/data/assembly");
+    Data[] packets = TestHelper.buildSegments(name, 0, 10).toArray(new Data[]{});
+    DataAssembler instance = new DataAssembler(packets, (byte) 0x00, true);
+
+    Data reassembled = instance.assemble();
+    ByteBuffer content = reassembled.getContent().buf();
+    assertTrue(content.isDirect());
+    byte[] bytes = new byte[content.remaining()];
+    content.duplicate().get(bytes);
+    assertEquals("0123456789", new String(bytes));
+    assertEquals("0", packets[0].getContent().toString()); // segments are left untouched
+  }
+
+  @Test
+  public void testReassembleView() throws InterruptedException, ExecutionException {
+    Name name = new Name("/data/assembly");
+    Data[] packets = TestHelper.buildSegments(name, 0, 10).toArray(new Data[]{});
+    CompositeContent view = new DataAssembler(packets, (byte) 0x00).assembleView();
+
+    assertEquals(10, view.size());
+    assertEquals('7', view.get(7));
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testReassembleNone() throws InterruptedException, ExecutionException {
     Data[] packets = new Data[]{};
@@ -0,0 +1,193 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import com.intel.jndn.mock.MockForwarder;
+import com.intel.jndn.utils.Client;
+import com.intel.jndn.utils.client.BatchClient;
+import com.intel.jndn.utils.impl.FaceReactor;
+import com.intel.jndn.utils.server.impl.SegmentedServer;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test DefaultBatchClient
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class DefaultBatchClientTest {
+
+  @Test
+  public void testInFlightLimitAndCompletionOrder() throws Exception {
+    ManualClient manual = new ManualClient();
+    DefaultBatchClient instance = new DefaultBatchClient(manual, 2);
+    RecordingObserver observer = new RecordingObserver();
+
+    CompletableFuture<Void> done = instance.getAllAsync(null, names(4), observer);
+    assertEquals(2, manual.pending.size());
+
+    manual.respond(1);
+    assertEquals(3, manual.pending.size());
+    assertEquals("/test/batch/2", manual.pending.get(2).interest.getName().toUri());
+
+    manual.fail(0);
+    manual.respond(3);
+    assertFalse(done.isDone());
+    manual.respond(2);
+    assertTrue(done.isDone());
+
+    assertEquals(4, manual.pending.size());
+    assertEquals(Stream.of("/test/batch/1", "/test/batch/3", "/test/batch/2").collect(Collectors.toList()), observer.received);
+    assertEquals(Collections.singletonList("/test/batch/0"), observer.failed);
+  }
+
+  @Test
+  public void testEmptyBatch() throws Exception {
+    DefaultBatchClient instance = new DefaultBatchClient(new ManualClient(), 2);
+    assertTrue(instance.getAllAsync(null, Stream.empty(), new RecordingObserver()).isDone());
+  }
+
+  @Test
+  public void testFailingIterator() throws Exception {
+    DefaultBatchClient instance = new DefaultBatchClient(new ManualClient(), 2);
+    Stream<Name> names = Stream.of("/a", "/b").map(s -> {
+      throw new IllegalStateException(s);
+    });
+    assertTrue(instance.getAllAsync(null, names, new RecordingObserver()).isCompletedExceptionally());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoInFlight() {
+    new DefaultBatchClient(new ManualClient(), 0);
+  }
+
+  @Test
+  public void testBatchOverNetwork() throws Exception {
+    MockForwarder forwarder = new MockForwarder();
+    Face producer = forwarder.connect();
+    Face consumer = forwarder.connect();
+    SegmentedServer server = new SegmentedServer(producer, new Name("/test/batch"));
+    for (int i = 0; i < 50; i++) {
+      Data data = new Data(new Name("/test/batch").appendSequenceNumber(i));
+      data.setContent(new Blob("..."));
+      server.serve(data);
+    }
+
+    FaceReactor producerReactor = FaceReactor.start(producer);
+    FaceReactor consumerReactor = FaceReactor.start(consumer);
+    try {
+      RecordingObserver observer = new RecordingObserver();
+      new DefaultBatchClient(new SimpleClient(), 8)
+          .getAllAsync(consumer, IntStream.range(0, 50).mapToObj(i -> new Name("/test/batch").appendSequenceNumber(i)), observer)
+          .get(5, TimeUnit.SECONDS);
+      assertEquals(50, observer.received.size());
+      assertTrue(observer.failed.isEmpty());
+    } finally {
+      consumerReactor.close();
+      producerReactor.close();
+    }
+  }
+
+  private static Stream<Name> names(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new Name("/test/batch/" + i));
+  }
+
+  /**
+   * Helper data structure: a client completing requests on demand
+   */
+  private static class ManualClient implements Client {
+
+    final List<Request> pending = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<Data> getAsync(Face face, Interest interest) {
+      Request request = new Request(interest);
+      pending.add(request);
+      return request.future;
+    }
+
+    @Override
+    public CompletableFuture<Data> getAsync(Face face, Name name) {
+      return getAsync(face, new Interest(name));
+    }
+
+    @Override
+    public Data getSync(Face face, Interest interest) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Data getSync(Face face, Name name) {
+      throw new UnsupportedOperationException();
+    }
+
+    void respond(int i) {
+      Request request = pending.get(i);
+      request.future.complete(new Data(request.interest.getName()));
+    }
+
+    void fail(int i) {
+      pending.get(i).future.completeExceptionally(new TimeoutException());
+    }
+  }
+
+  /**
+   * Helper data structure
+   */
+  private static class Request {
+
+    final Interest interest;
+    final CompletableFuture<Data> future = new CompletableFuture<>();
+
+    Request(Interest interest) {
+      this.interest = interest;
+    }
+  }
+
+  /**
+   * Helper data structure: records the names reported, in order
+   */
+  private static class RecordingObserver implements BatchClient.BatchObserver {
+
+    final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void onData(Interest interest, Data data) {
+      received.add(data.getName().toUri());
+    }
+
+    @Override
+    public void onFailure(Interest interest, Exception failure) {
+      assertTrue(failure instanceof TimeoutException);
+      failed.add(interest.getName().toUri());
+    }
+  }
+}
@@ -13,6 +13,7 @@
  */
 package com.intel.jndn.utils.client.impl;
 
+import com.intel.jndn.mock.MockFace;
 import com.intel.jndn.mock.MockForwarder;
 import com.intel.jndn.utils.TestHelper.TestCounter;
 import net.named_data.jndn.Data;
@@ -55,6 +56,38 @@ public class DefaultRetryClientTest {
     respondToRetryAttempt(face);
   }
 
+  @Test
+  public void testRetryWithEstimatedTimeout() throws Exception {
+    MockFace face = new MockFace();
+    RttEstimator estimator = new RttEstimator(100, 1, 1000);
+    estimator.addSample(10); // 30ms timeout
+    DefaultRetryClient estimating = new DefaultRetryClient(3, estimator);
+
+    estimating.retry(face, new Interest(name, 2000), (interest1, data) -> counter.count++, interest2 -> fail("Should not timeout."));
+    assertEquals(30.0, face.sentInterests.get(0).getInterestLifetimeMilliseconds(), 0.0);
+
+    Thread.sleep(40);
+    face.processEvents();
+    assertEquals(2, face.sentInterests.size());
+    assertEquals(60.0, face.sentInterests.get(1).getInterestLifetimeMilliseconds(), 0.0);
+  }
+
+  @Test
+  public void testSimultaneousTimeoutsBackOffOnce() throws Exception {
+    MockFace face = new MockFace();
+    RttEstimator estimator = new RttEstimator(100, 1, 1000);
+    estimator.addSample(10); // 30ms timeout
+    DefaultRetryClient estimating = new DefaultRetryClient(1, estimator);
+
+    estimating.retry(face, new Interest(new Name(name).append("a"), 2000), (interest1, data) -> counter.count++, interest2 -> counter.count--);
+    estimating.retry(face, new Interest(new Name(name).append("b"), 2000), (interest1, data) -> counter.count++, interest2 -> counter.count--);
+    Thread.sleep(40);
+    face.processEvents();
+
+    assertEquals(-2, counter.count);
+    assertEquals(60.0, estimator.getRto(), 0.0);
+  }
+
   private void timeoutAndVerifyRetry(Face face, int retryCount) throws Exception {
     Thread.sleep((long) INTEREST_LIFETIME_MS + 1); // necessary to timeout the pending interest
     face.processEvents();
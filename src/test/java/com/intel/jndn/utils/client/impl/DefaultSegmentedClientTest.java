@@ -18,14 +18,21 @@ import com.intel.jndn.mock.MockFace;
 import com.intel.jndn.mock.MockForwarder;
 import com.intel.jndn.utils.TestHelper;
 import com.intel.jndn.utils.TestHelper.TestCounter;
+import com.intel.jndn.utils.client.CongestionWindow;
 import com.intel.jndn.utils.client.DataStream;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
+import net.named_data.jndn.OnTimeout;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test DefaultSegmentedClient
@@ -91,4 +98,125 @@ public class DefaultSegmentedClientTest {
     assertEquals(5, ((MeasurableFace) face).sentInterests().size());
     assertEquals("01234", stream.assemble().getContent().toString());
   }
+
+  @Test
+  public void testFixedWindow() throws Exception {
+    MockFace face = new MockFace();
+    DefaultSegmentedClient windowed = new DefaultSegmentedClient(() -> CongestionWindow.fixed(3));
+    Name name = new Name("/test/segmented/window");
+    List<Data> segments = TestHelper.buildSegments(name, 0, 10);
+    DataStream stream = windowed.getSegmentsAsync(face, new Interest(new Name(name).appendSegment(0)));
+    assertEquals(1, face.sentInterests.size());
+
+    face.receive(segments.get(0));
+    face.processEvents();
+    assertEquals(4, face.sentInterests.size());
+    assertEquals(3, face.sentInterests.get(3).getName().get(-1).toSegment());
+
+    // out-of-order data frees a slot in the window
+    face.receive(segments.get(2));
+    face.processEvents();
+    assertEquals(5, face.sentInterests.size());
+    assertEquals(4, face.sentInterests.get(4).getName().get(-1).toSegment());
+
+    for (int i = 1; i < 10; i++) {
+      if (i != 2) {
+        face.receive(segments.get(i));
+        face.processEvents();
+      }
+    }
+    assertEquals(10, face.sentInterests.size());
+    assertTrue(stream.isComplete());
+    assertEquals("0123456789", stream.assemble().getContent().toString());
+  }
+
+  @Test
+  public void testWindowShrinksOnTimeout() throws Exception {
+    MockFace face = new MockFace();
+    AimdCongestionWindow window = new AimdCongestionWindow(4, 100, 0.5);
+    DefaultSegmentedClient windowed = new DefaultSegmentedClient(() -> window, () -> new RttEstimator(50, 50, 50));
+    Name name = new Name("/test/segmented/timeout");
+    Interest interest = new Interest(new Name(name).appendSegment(0), 1);
+    DataStream stream = windowed.getSegmentsAsync(face, interest);
+    TestCounter timeouts = new TestCounter();
+    stream.observe((OnTimeout) i -> timeouts.count++);
+
+    face.receive(TestHelper.buildData(new Name(name).appendSegment(0), "0", 99));
+    face.processEvents();
+    assertEquals(5, face.sentInterests.size());
+
+    Thread.sleep(60);
+    face.processEvents();
+    assertEquals(4, timeouts.count);
+    assertEquals(1, window.decreaseCount());
+    assertEquals(2, window.size());
+  }
+
+  @Test
+  public void testSimultaneousTimeoutsBackOffOnce() throws Exception {
+    MockFace face = new MockFace();
+    RttEstimator estimator = new RttEstimator(50, 50, 10000);
+    DefaultSegmentedClient windowed = new DefaultSegmentedClient(() -> CongestionWindow.fixed(4), () -> estimator);
+    Name name = new Name("/test/segmented/backoff");
+    DataStream stream = windowed.getSegmentsAsync(face, new Interest(new Name(name).appendSegment(0), 1000));
+    List<Double> retryLifetimes = new ArrayList<>();
+    stream.observe((OnTimeout) i -> retryLifetimes.add(i.getInterestLifetimeMilliseconds()));
+
+    face.receive(TestHelper.buildData(new Name(name).appendSegment(0), "0", 99));
+    face.processEvents();
+    assertEquals(5, face.sentInterests.size());
+
+    Thread.sleep(60);
+    face.processEvents();
+    assertEquals(Arrays.asList(100.0, 100.0, 100.0, 100.0), retryLifetimes);
+    assertEquals(100, estimator.getRto(), 0.0);
+  }
+
+  @Test
+  public void testStreamWindowHoldsBackFetch() throws Exception {
+    MockFace face = new MockFace();
+    DefaultSegmentedClient windowed = new DefaultSegmentedClient(() -> CongestionWindow.fixed(8));
+    Name name = new Name("/test/segmented/backpressure");
+    List<Data> segments = TestHelper.buildSegments(name, 0, 10);
+    SegmentedDataStream stream = windowed.getSegmentsAsync(face, new Interest(new Name(name).appendSegment(0)), new SegmentedDataStream(2));
+
+    face.receive(segments.get(0));
+    face.processEvents();
+    assertEquals(3, face.sentInterests.size()); // segments 1 and 2 only
+
+    face.receive(segments.get(2));
+    face.processEvents();
+    assertEquals(3, face.sentInterests.size());
+
+    face.receive(segments.get(1));
+    face.processEvents();
+    assertEquals(5, face.sentInterests.size());
+    assertEquals(4, face.sentInterests.get(4).getName().get(-1).toSegment());
+    assertEquals(0, stream.list().length);
+  }
+
+  @Test
+  public void testRetriedSegmentRefillsStreamWindow() throws Exception {
+    MockFace face = new MockFace();
+    DefaultSegmentedClient windowed = new DefaultSegmentedClient(() -> CongestionWindow.fixed(8), () -> new RttEstimator(50, 50, 50));
+    Name name = new Name("/test/segmented/recovered");
+    List<Data> segments = TestHelper.buildSegments(name, 0, 10);
+    SegmentedDataStream stream = windowed.getSegmentsAsync(face, new Interest(new Name(name).appendSegment(0)), new SegmentedDataStream(2));
+    List<Interest> timedOut = new ArrayList<>();
+    stream.observe((OnTimeout) timedOut::add);
+
+    face.receive(segments.get(0));
+    face.processEvents();
+    face.receive(segments.get(2));
+    face.processEvents();
+    Thread.sleep(60);
+    face.processEvents();
+    assertEquals(1, timedOut.size());
+    assertEquals(3, face.sentInterests.size());
+
+    // a retry client recovers segment 1 directly into the stream
+    stream.onData(timedOut.get(0), segments.get(1));
+    assertEquals(5, face.sentInterests.size());
+    assertEquals(4, face.sentInterests.get(4).getName().get(-1).toSegment());
+  }
 }
@@ -0,0 +1,82 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.client.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test RttEstimator
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class RttEstimatorTest {
+
+  @Test
+  public void testSamples() {
+    RttEstimator instance = new RttEstimator(1000, 1, 60000);
+    assertEquals(1000, instance.getRto(), 0.0);
+    assertEquals(-1, instance.getSmoothedRtt(), 0.0);
+
+    instance.addSample(100);
+    assertEquals(100, instance.getSmoothedRtt(), 0.0);
+    assertEquals(50, instance.getRttVariation(), 0.0);
+    assertEquals(300, instance.getRto(), 0.0);
+
+    instance.addSample(20);
+    assertEquals(57.5, instance.getRttVariation(), 0.001); // 3/4 * 50 + 1/4 * 80
+    assertEquals(90, instance.getSmoothedRtt(), 0.001); // 7/8 * 100 + 1/8 * 20
+    assertEquals(320, instance.getRto(), 0.001);
+  }
+
+  @Test
+  public void testConvergesOnLowLatency() {
+    RttEstimator instance = new RttEstimator(2000, 1, 60000);
+    for (int i = 0; i < 50; i++) {
+      instance.addSample(5);
+    }
+    assertEquals(5, instance.getSmoothedRtt(), 0.01);
+    assertEquals(6, instance.getRto(), 0.1);
+  }
+
+  @Test
+  public void testBackoffAndBounds() {
+    RttEstimator instance = new RttEstimator(100, 50, 300);
+    instance.backoff();
+    assertEquals(200, instance.getRto(), 0.0);
+    instance.backoff();
+    assertEquals(300, instance.getRto(), 0.0);
+
+    instance.addSample(1);
+    assertEquals(50, instance.getRto(), 0.0);
+  }
+
+  @Test
+  public void testBackoffOncePerLossEvent() {
+    RttEstimator instance = new RttEstimator(100, 50, 1000);
+    assertTrue(instance.backoff(100));
+    assertFalse(instance.backoff(100));
+    assertEquals(200, instance.getRto(), 0.0);
+    assertTrue(instance.backoff(200));
+    assertEquals(400, instance.getRto(), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new RttEstimator(100, 300, 50);
+  }
+}
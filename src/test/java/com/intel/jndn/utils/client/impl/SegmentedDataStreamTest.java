@@ -14,6 +14,9 @@
 package com.intel.jndn.utils.client.impl;
 
 import com.intel.jndn.utils.TestHelper;
+import com.intel.jndn.utils.TestHelper.TestCounter;
+import com.intel.jndn.utils.client.OnComplete;
+import com.intel.jndn.utils.client.OnException;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
@@ -22,10 +25,20 @@ import net.named_data.jndn.encoding.EncodingException;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -133,6 +146,164 @@ public class SegmentedDataStreamTest {
     assertEquals(7, instance.list().length);
   }
 
+  @Test
+  public void testStreamingReleasesObservedPackets() throws Exception {
+    SegmentedDataStream streaming = new SegmentedDataStream(3);
+    StringBuilder observed = new StringBuilder();
+    streaming.observe((i, d) -> observed.append(d.getContent().toString()));
+    Name name = new Name("/test/segmented/data/stream");
+    Interest interest = new Interest(name);
+
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(2), "2", 5));
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(1), "1", 5));
+    assertEquals(2, streaming.list().length);
+    assertEquals(2, streaming.windowLimit());
+
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(0), "0", 5));
+    assertEquals("012", observed.toString());
+    assertEquals(0, streaming.list().length);
+    assertEquals(5, streaming.windowLimit());
+
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(1), "1", 5)); // duplicate
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(5), "5", 5));
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(4), "4", 5));
+    streaming.onData(interest, TestHelper.buildData(new Name(name).appendSegment(3), "3", 5));
+    assertEquals("012345", observed.toString());
+    assertTrue(streaming.isComplete());
+    assertFalse(streaming.isCompletedExceptionally());
+  }
+
+  @Test
+  public void testStreamingListsInSegmentOrder() throws Exception {
+    SegmentedDataStream streaming = new SegmentedDataStream(3);
+    for (long i = 0; i < 4; i++) {
+      addPacketToStream(streaming, i);
+    }
+    addPacketToStream(streaming, 6); // wraps around to the first slot of the ring
+    addPacketToStream(streaming, 5);
+
+    Data[] listed = streaming.list();
+    assertEquals(2, listed.length);
+    assertEquals(5, listed[0].getName().get(-1).toSegment());
+    assertEquals(6, listed[1].getName().get(-1).toSegment());
+  }
+
+  @Test
+  public void testManySegmentsAssembleInOrder() throws Exception {
+    int count = 70000; // more than a HashMap iterates in key order
+    Name name = new Name("/test/segmented/data/stream");
+    for (int i = count - 1; i >= 0; i--) {
+      instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(i), String.valueOf(i % 10), count - 1));
+    }
+    assertTrue(instance.isComplete());
+
+    Data[] listed = instance.list();
+    for (int i = 0; i < count; i++) {
+      assertEquals(i, listed[i].getName().get(-1).toSegment());
+    }
+    CompositeContent view = instance.assembleView();
+    assertEquals(count, view.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals('0' + i % 10, view.get(i));
+    }
+  }
+
+  @Test
+  public void testStreamingRejectsSegmentsBeyondWindow() throws Exception {
+    SegmentedDataStream streaming = new SegmentedDataStream(2);
+    addPacketToStream(streaming, 0);
+    addPacketToStream(streaming, 3);
+    assertTrue(streaming.isCompletedExceptionally());
+  }
+
+  @Test(expected = StreamException.class)
+  public void testStreamingCannotAssemble() throws Exception {
+    SegmentedDataStream streaming = new SegmentedDataStream(2);
+    addPacketToStream(streaming, 0);
+    streaming.assemble();
+  }
+
+  @Test
+  public void testConcurrentDeliveryIsOrdered() throws Exception {
+    int count = 1000;
+    List<Long> observed = new ArrayList<>();
+    TestCounter completions = new TestCounter();
+    instance.observe((i, d) -> {
+      try {
+        observed.add(d.getName().get(-1).toSegment());
+      } catch (EncodingException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    instance.observe(() -> completions.count++);
+
+    List<Long> segments = LongStream.range(0, count).boxed().collect(Collectors.toList());
+    Collections.shuffle(segments, new Random(42));
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    Name name = new Name("/test/segmented/data/stream");
+    for (long i : segments) {
+      pool.submit(() -> instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(i), ".", count - 1)));
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(segments.stream().sorted().collect(Collectors.toList()), observed);
+    assertEquals(1, completions.count);
+  }
+
+  @Test
+  public void testObserversRunOutsideMonitor() throws Exception {
+    Name name = new Name("/test/segmented/data/stream");
+    List<String> observed = new ArrayList<>();
+    instance.observe((i, d) -> {
+      observed.add(d.getName().toUri());
+      if (observed.size() == 1) {
+        // another thread delivering while this callback runs must not block on the stream
+        Thread other = new Thread(() -> instance.onData(i, TestHelper.buildData(new Name(name).appendSegment(1), ".", 1)));
+        other.start();
+        try {
+          other.join(1000);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        assertFalse(other.isAlive());
+      }
+    });
+
+    instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(0), ".", 1));
+    assertEquals(2, observed.size());
+    assertTrue(instance.isComplete());
+  }
+
+  @Test
+  public void testThrowingObserverDoesNotStallDelivery() throws Exception {
+    Name name = new Name("/test/segmented/data/stream");
+    List<String> observed = new ArrayList<>();
+    List<Exception> failures = new ArrayList<>();
+    TestCounter completions = new TestCounter();
+    instance.observe((i, d) -> {
+      throw new IllegalStateException("observer failure");
+    });
+    instance.observe((i, d) -> observed.add(d.getName().toUri()));
+    instance.observe((OnException) failures::add);
+    instance.observe((OnComplete) () -> completions.count++);
+
+    // buffered out of order, then delivered with segment 0
+    instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(2), ".", 2));
+    instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(1), ".", 2));
+    instance.onData(new Interest(name), TestHelper.buildData(new Name(name).appendSegment(0), ".", 2));
+
+    assertEquals(3, observed.size());
+    assertEquals(3, failures.size());
+    assertTrue(failures.get(0) instanceof IllegalStateException);
+    assertEquals(1, completions.count);
+  }
+
+  private void addPacketToStream(SegmentedDataStream stream, long i) {
+    Name name = new Name().appendSegment(i);
+    stream.onData(new Interest(name), new Data(name));
+  }
+
   private void addPacketToInstance(long i) {
     Name name = new Name().appendSegment(i);
     instance.onData(new Interest(name), new Data(name));
@@ -14,6 +14,9 @@
 package com.intel.jndn.utils.client.impl;
 
 import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.mock.MockForwarder;
+import com.intel.jndn.utils.impl.FaceReactor;
+import com.intel.jndn.utils.server.impl.SegmentedServer;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -32,6 +35,7 @@ import java.util.logging.Logger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Test SimpleClient.java
@@ -124,4 +128,61 @@ public class SimpleClientTest {
     Interest interest = new Interest(new Name("/test/no-data"), 10);
     SimpleClient.getDefault().getSync(new Face(), interest);
   }
+
+  @Test
+  public void testGetSyncWithReactor() throws Exception {
+    Face face = new MockForwarder().connect();
+    SegmentedServer server = new SegmentedServer(face, new Name("/test/loop"));
+    Data response = new Data(new Name("/test/loop/data"));
+    response.setContent(new Blob("..."));
+    server.serve(response);
+
+    try (FaceReactor reactor = FaceReactor.start(face)) {
+      assertTrue(FaceReactor.forFace(face) == reactor);
+      SimpleClient client = new SimpleClient(1000, 2000); // a polling client would sleep a second
+      long start = System.currentTimeMillis();
+      Data data = client.getSync(face, new Name("/test/loop/data"));
+      assertEquals("...", data.getContent().toString());
+      assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+    assertTrue(FaceReactor.forFace(face) == null);
+  }
+
+  @Test(expected = IOException.class)
+  public void testSyncFailureWithReactor() throws Exception {
+    Face face = new MockFace();
+    FaceReactor reactor = FaceReactor.start(face);
+    try {
+      SimpleClient.getDefault().getSync(face, new Interest(new Name("/test/no-data"), 10));
+    } finally {
+      reactor.close();
+    }
+  }
+
+  @Test
+  public void testSyncFromReactorThreadFailsFast() throws Exception {
+    Face face = new MockFace();
+    try (FaceReactor reactor = FaceReactor.start(face)) {
+      CompletableFuture<Data> attempt = reactor.submit(f -> SimpleClient.getDefault().getSync(f, new Interest(new Name("/test/callback"), 60000)));
+      try {
+        attempt.get(1, TimeUnit.SECONDS);
+        fail("getSync must not block the reactor thread");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IOException);
+      }
+    }
+  }
+
+  @Test
+  public void testCloseFailsPendingInterests() throws Exception {
+    Face face = new MockFace();
+    FaceReactor reactor = FaceReactor.start(face);
+    CompletableFuture<Data> future;
+    try {
+      future = SimpleClient.getDefault().getAsync(face, new Interest(new Name("/test/pending"), 60000));
+    } finally {
+      reactor.close();
+    }
+    assertTrue(future.isCompletedExceptionally());
+  }
 }
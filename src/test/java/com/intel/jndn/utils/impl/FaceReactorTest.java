@@ -0,0 +1,109 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import com.intel.jndn.mock.MockFace;
+import com.intel.jndn.mock.MockForwarder;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link FaceReactor}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class FaceReactorTest {
+
+  @Test
+  public void testSubmitRunsOnReactorThread() throws Exception {
+    Face face = new MockFace();
+    try (FaceReactor reactor = FaceReactor.start(face)) {
+      Thread caller = Thread.currentThread();
+      Thread runner = reactor.submit(f -> Thread.currentThread()).get(1, TimeUnit.SECONDS);
+      assertNotSame(caller, runner);
+      assertTrue(reactor.isRunning());
+      assertSame(runner, FaceReactor.call(face, f -> Thread.currentThread()).get(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testCallWithoutReactorRunsInline() throws Exception {
+    Face face = new MockFace();
+    CompletableFuture<Thread> future = FaceReactor.call(face, f -> Thread.currentThread());
+    assertTrue(future.isDone());
+    assertSame(Thread.currentThread(), future.get());
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    MockForwarder forwarder = new MockForwarder();
+    Face producer = forwarder.connect();
+    Face consumer = forwarder.connect();
+    Name name = new Name("/test/reactor");
+
+    try (FaceReactor producerReactor = FaceReactor.start(producer);
+         FaceReactor consumerReactor = FaceReactor.start(consumer)) {
+      producerReactor.registerPrefix(name, (prefix, interest, face, id, filter) -> {
+        Data data = new Data(interest.getName());
+        data.setContent(new Blob("..."));
+        producerReactor.putData(data);
+      }, prefix -> fail("Failed to register " + prefix.toUri())).get(1, TimeUnit.SECONDS);
+
+      CompletableFuture<Data> response = new CompletableFuture<>();
+      consumerReactor.expressInterest(new Interest(new Name(name).append("data"), 1000),
+          (interest, data) -> response.complete(data),
+          interest -> response.completeExceptionally(new Exception("Timed out")));
+      assertEquals("...", response.get(2, TimeUnit.SECONDS).getContent().toString());
+    }
+  }
+
+  @Test
+  public void testFailedCall() throws Exception {
+    Face face = new MockFace();
+    try (FaceReactor reactor = FaceReactor.start(face)) {
+      CompletableFuture<Void> future = reactor.submit(f -> {
+        throw new IllegalArgumentException("...");
+      });
+      try {
+        future.get(1, TimeUnit.SECONDS);
+        fail("The call should fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+      }
+    }
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    Face face = new MockFace();
+    FaceReactor reactor = FaceReactor.start(face);
+    reactor.close();
+    assertFalse(reactor.isRunning());
+    assertNull(FaceReactor.forFace(face));
+
+    CompletableFuture<Long> future = reactor.expressInterest(new Interest(new Name("/test/closed")), null, null);
+    assertTrue(future.isCompletedExceptionally());
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link FileSegmentSource}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class FileSegmentSourceTest {
+
+  private Path file;
+
+  @Before
+  public void before() throws IOException {
+    file = Files.createTempFile("file-segment-source", ".txt");
+  }
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void testSegmentsOnDemand() throws Exception {
+    Files.write(file, "0123456789".getBytes());
+    try (FileSegmentSource source = new FileSegmentSource(file, new Data(new Name("/file")), 4)) {
+      assertEquals(10, source.getSize());
+      assertEquals(3, source.getSegmentCount());
+
+      Data last = source.getSegment(2);
+      assertEquals("/file", last.getName().getPrefix(-1).toUri());
+      assertEquals(2, last.getName().get(-1).toSegment());
+      assertEquals(2, last.getMetaInfo().getFinalBlockId().toSegment());
+      assertEquals("89", last.getContent().toString());
+
+      Data first = source.getSegment(0);
+      assertEquals("0123", first.getContent().toString());
+      assertEquals(2, first.getMetaInfo().getFinalBlockId().toSegment());
+      assertTrue(first.getContent().buf().isReadOnly());
+    }
+  }
+
+  @Test
+  public void testSegmentsAtOffset() throws Exception {
+    Files.write(file, "0123456789".getBytes());
+    try (FileSegmentSource source = new FileSegmentSource(file, new Data(new Name("/file")), 4)) {
+      Data middle = source.getSegmentAtOffset(3);
+      assertEquals(3, middle.getName().get(-1).toSegmentOffset());
+      assertEquals("3456", middle.getContent().toString());
+      assertEquals(0, middle.getMetaInfo().getFinalBlockId().getValue().size());
+
+      Data last = source.getSegmentAtOffset(7);
+      assertEquals("789", last.getContent().toString());
+      assertEquals(7, last.getMetaInfo().getFinalBlockId().toSegmentOffset());
+    }
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    try (FileSegmentSource source = new FileSegmentSource(file, new Data(new Name("/file")))) {
+      assertEquals(1, source.getSegmentCount());
+      assertEquals(0, source.getSegment(0).getContent().size());
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSegmentOutOfBounds() throws Exception {
+    Files.write(file, "0123456789".getBytes());
+    try (FileSegmentSource source = new FileSegmentSource(file, new Data(new Name("/file")), 5)) {
+      source.getSegment(2);
+    }
+  }
+}
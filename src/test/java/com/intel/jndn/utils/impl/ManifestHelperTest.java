@@ -0,0 +1,62 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.DigestSha256Signature;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link ManifestHelper}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ManifestHelperTest {
+
+  @Test
+  public void testBuildAndParseManifests() throws Exception {
+    Data template = new Data(new Name("/manifested/data"));
+    List<Data> segments = SegmentationHelper.segment(template, new Blob("0123456789"), 2);
+    for (Data segment : segments) {
+      ManifestHelper.signWithDigest(segment);
+    }
+
+    List<Data> manifests = ManifestHelper.buildManifests(template, segments, 2);
+    assertEquals(3, manifests.size());
+    assertEquals("/manifested/data/_manifest", manifests.get(1).getName().getPrefix(-1).toUri());
+    assertEquals(1, manifests.get(1).getName().get(-1).toSegment());
+    assertEquals(2, manifests.get(1).getMetaInfo().getFinalBlockId().toSegment());
+    assertEquals(ManifestHelper.DIGEST_SIZE, manifests.get(2).getContent().size());
+
+    List<Blob> digests = ManifestHelper.parseDigests(manifests);
+    assertEquals(5, digests.size());
+    for (int i = 0; i < segments.size(); i++) {
+      assertEquals(segments.get(i).getFullName().get(-1).getValue(), digests.get(i));
+    }
+  }
+
+  @Test
+  public void testSignWithDigest() throws Exception {
+    Data data = ManifestHelper.signWithDigest(new Data(new Name("/digested")));
+    assertTrue(data.getSignature() instanceof DigestSha256Signature);
+    assertEquals(ManifestHelper.DIGEST_SIZE, data.getSignature().getSignature().size());
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+
+package com.intel.jndn.utils.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.util.Blob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link PacketSizePolicy}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class PacketSizePolicyTest {
+
+  private KeyChain keyChain;
+  private Data template;
+
+  @Before
+  public void before() throws Exception {
+    keyChain = KeyChainFactory.configureTestKeyChain(new Name("/test/packet-size"));
+    template = new Data(new Name("/test/packet-size/object"));
+    template.getMetaInfo().setFreshnessPeriod(1000);
+  }
+
+  @Test
+  public void testSegmentsFitTargetWhenEstimated() throws Exception {
+    PacketSizePolicy policy = new PacketSizePolicy(PacketSizePolicy.ETHERNET_UDP_PACKET_SIZE);
+    assertSignedSegmentsFit(policy.segmentSize(template), PacketSizePolicy.ETHERNET_UDP_PACKET_SIZE);
+  }
+
+  @Test
+  public void testSegmentsFitTargetWhenMeasured() throws Exception {
+    PacketSizePolicy policy = new PacketSizePolicy(PacketSizePolicy.MAX_PACKET_SIZE, keyChain, keyChain.getDefaultCertificateName());
+    int segmentSize = policy.segmentSize(template);
+    List<Data> segments = assertSignedSegmentsFit(segmentSize, PacketSizePolicy.MAX_PACKET_SIZE);
+    assertTrue(segments.get(0).wireEncode().size() > PacketSizePolicy.MAX_PACKET_SIZE - 32);
+  }
+
+  @Test
+  public void testMeasurementPerNameLength() throws Exception {
+    PacketSizePolicy policy = new PacketSizePolicy(PacketSizePolicy.MAX_PACKET_SIZE, keyChain, keyChain.getDefaultCertificateName());
+    int segmentSize = policy.segmentSize(template);
+    Data sameLength = new Data(template);
+    sameLength.setName(new Name("/test/packet-size/second"));
+    assertEquals(segmentSize, policy.segmentSize(sameLength));
+    assertEquals(segmentSize, policy.segmentSize(template));
+
+    Data longer = new Data(template);
+    longer.getName().append("a-much-longer-name-component");
+    int longerSegmentSize = policy.segmentSize(longer);
+    assertTrue(longerSegmentSize < segmentSize);
+    template = longer;
+    assertSignedSegmentsFit(longerSegmentSize, PacketSizePolicy.MAX_PACKET_SIZE);
+  }
+
+  @Test
+  public void testLongerNamesLeaveLessContent() {
+    PacketSizePolicy policy = new PacketSizePolicy(PacketSizePolicy.ETHERNET_UDP_PACKET_SIZE);
+    Data longer = new Data(template);
+    longer.getName().append("a-much-longer-name-component");
+    assertTrue(policy.segmentSize(longer) < policy.segmentSize(template));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverheadExceedingTarget() {
+    new PacketSizePolicy(100).segmentSize(template);
+  }
+
+  private List<Data> assertSignedSegmentsFit(int segmentSize, int targetPacketSize) throws Exception {
+    List<Data> segments = SegmentationHelper.segment(template, new Blob(new byte[10 * segmentSize + 1]), segmentSize);
+    for (Data segment : segments) {
+      keyChain.sign(segment, keyChain.getDefaultCertificateName());
+      assertTrue(segment.wireEncode().size() <= targetPacketSize);
+    }
+    return segments;
+  }
+}
@@ -17,10 +17,14 @@ package com.intel.jndn.utils.impl;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.util.Blob;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -75,6 +79,63 @@ public class SegmentationHelperTest {
     assertEquals("89", segments4.get(2).getContent().toString());
   }
 
+  @Test
+  public void testLazySegmentation() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    final InputStream content = new ByteArrayInputStream("0123456789".getBytes());
+    Iterator<Data> iterator = SegmentationHelper.segmentLazily(template, content, 4);
+    List<Data> segments = new ArrayList<>();
+    iterator.forEachRemaining(segments::add);
+
+    assertEquals(3, segments.size());
+    assertEquals("0123", segments.get(0).getContent().toString());
+    assertEquals(0, segments.get(0).getName().get(-1).toSegment());
+    assertEquals(0, segments.get(0).getMetaInfo().getFinalBlockId().getValue().size());
+    assertEquals("89", segments.get(2).getContent().toString());
+    assertEquals(2, segments.get(2).getMetaInfo().getFinalBlockId().toSegment());
+  }
+
+  @Test
+  public void testLazySegmentationOfExactMultiple() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    Iterator<Data> iterator = SegmentationHelper.segmentLazily(template, new ByteArrayInputStream("01234567".getBytes()), 4);
+    iterator.next();
+    Data last = iterator.next();
+
+    assertFalse(iterator.hasNext());
+    assertEquals(1, last.getMetaInfo().getFinalBlockId().toSegment());
+    assertFalse(SegmentationHelper.segmentLazily(template, new ByteArrayInputStream(new byte[0]), 4).hasNext());
+  }
+
+  @Test
+  public void testZeroCopySegmentation() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    byte[] bytes = "0123456789".getBytes();
+    List<Data> segments = SegmentationHelper.segment(template, ByteBuffer.wrap(bytes), 4);
+
+    assertEquals(3, segments.size());
+    assertEquals("4567", segments.get(1).getContent().toString());
+    assertEquals("89", segments.get(2).getContent().toString());
+    assertEquals(2, segments.get(0).getMetaInfo().getFinalBlockId().toSegment());
+
+    bytes[4] = 'x';
+    assertEquals("x567", segments.get(1).getContent().toString()); // shares the original bytes
+    assertTrue(segments.get(1).getContent().buf().isReadOnly());
+  }
+
+  @Test
+  public void testZeroCopySegmentationOfBlob() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    ByteBuffer buffer = ByteBuffer.wrap("--0123456789".getBytes());
+    buffer.position(2);
+    List<Data> segments = SegmentationHelper.segment(template, new Blob(buffer, false), 5);
+
+    assertEquals(2, segments.size());
+    assertEquals("01234", segments.get(0).getContent().toString());
+    assertEquals("56789", segments.get(1).getContent().toString());
+    assertTrue(SegmentationHelper.segment(template, new Blob(), 5).isEmpty());
+  }
+
   @Test
   public void isSegmented() {
     Name.Component component = Name.Component.fromNumberWithMarker(42, MARKER);
@@ -109,4 +170,34 @@ public class SegmentationHelperTest {
     Name unsegmentedName = new Name("/unsegmented/name");
     assertEquals(unsegmentedName, SegmentationHelper.removeSegment(unsegmentedName, MARKER));
   }
+
+  @Test
+  public void testSegmentationByOffset() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    List<Data> segments = SegmentationHelper.segmentByOffset(template, ByteBuffer.wrap("0123456789".getBytes()), 4);
+    assertEquals(3, segments.size());
+
+    assertEquals(4, segments.get(1).getName().get(-1).toSegmentOffset());
+    assertEquals("4567", segments.get(1).getContent().toString());
+    assertEquals(0, segments.get(1).getMetaInfo().getFinalBlockId().getValue().size());
+
+    assertEquals(8, segments.get(2).getName().get(-1).toSegmentOffset());
+    assertEquals("89", segments.get(2).getContent().toString());
+    assertEquals(8, segments.get(2).getMetaInfo().getFinalBlockId().toSegmentOffset());
+  }
+
+  @Test
+  public void testSegmentationAtAnyOffset() throws Exception {
+    final Data template = new Data(new Name("/segmented/data"));
+    Data segment = SegmentationHelper.segmentAtOffset(template, ByteBuffer.wrap("0123456789".getBytes()), 7, 4);
+    assertEquals("/segmented/data", segment.getName().getPrefix(-1).toUri());
+    assertEquals(7, segment.getName().get(-1).toSegmentOffset());
+    assertEquals("789", segment.getContent().toString());
+    assertEquals(7, segment.getMetaInfo().getFinalBlockId().toSegmentOffset());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSegmentationBeyondLastOffset() {
+    SegmentationHelper.segmentAtOffset(new Data(), ByteBuffer.wrap("0123456789".getBytes()), 10, 4);
+  }
 }
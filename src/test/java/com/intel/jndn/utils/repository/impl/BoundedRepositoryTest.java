@@ -0,0 +1,103 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.repository.impl.BoundedRepository.EvictionPolicy;
+import org.junit.Test;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link BoundedRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class BoundedRepositoryTest extends RepositoryTest {
+
+  private static final long PACKET_SIZE = buildFreshData("/a/0").wireEncode().size();
+
+  public BoundedRepositoryTest() {
+    instance = new BoundedRepository(1024 * 1024, EvictionPolicy.LRU);
+  }
+
+  @Test
+  public void testLruEviction() throws DataNotFoundException {
+    BoundedRepository repository = new BoundedRepository(2 * PACKET_SIZE, EvictionPolicy.LRU);
+    repository.put(buildFreshData("/a/0"));
+    repository.put(buildFreshData("/a/1"));
+    repository.get(buildInterest("/a/0"));
+    repository.put(buildFreshData("/a/2"));
+
+    assertTrue(repository.satisfies(buildInterest("/a/0")));
+    assertFalse(repository.satisfies(buildInterest("/a/1")));
+    assertTrue(repository.satisfies(buildInterest("/a/2")));
+    assertEquals(1, repository.getEvictionCount());
+    assertEquals(2 * PACKET_SIZE, repository.getSize());
+  }
+
+  @Test
+  public void testFifoEviction() throws DataNotFoundException {
+    BoundedRepository repository = new BoundedRepository(2 * PACKET_SIZE, EvictionPolicy.FIFO);
+    repository.put(buildFreshData("/a/0"));
+    repository.put(buildFreshData("/a/1"));
+    repository.get(buildInterest("/a/0"));
+    repository.put(buildFreshData("/a/2"));
+
+    assertFalse(repository.satisfies(buildInterest("/a/0")));
+    assertTrue(repository.satisfies(buildInterest("/a/1")));
+    assertTrue(repository.satisfies(buildInterest("/a/2")));
+  }
+
+  @Test
+  public void testLfuEviction() throws DataNotFoundException {
+    BoundedRepository repository = new BoundedRepository(2 * PACKET_SIZE, EvictionPolicy.LFU);
+    repository.put(buildFreshData("/a/0"));
+    repository.put(buildFreshData("/a/1"));
+    repository.get(buildInterest("/a/1"));
+    repository.get(buildInterest("/a/1"));
+    repository.get(buildInterest("/a/0"));
+    repository.put(buildFreshData("/a/2"));
+
+    assertFalse(repository.satisfies(buildInterest("/a/0")));
+    assertTrue(repository.satisfies(buildInterest("/a/1")));
+    assertTrue(repository.satisfies(buildInterest("/a/2")));
+  }
+
+  @Test
+  public void testCounters() {
+    BoundedRepository repository = new BoundedRepository(PACKET_SIZE, EvictionPolicy.LRU);
+    repository.put(buildFreshData("/a/0"));
+    try {
+      repository.get(buildInterest("/a/0"));
+      repository.get(buildInterest("/a/1"));
+    } catch (DataNotFoundException e) {
+      // expected for the second packet
+    }
+
+    assertEquals(1, repository.getHitCount());
+    assertEquals(1, repository.getMissCount());
+    assertEquals(0, repository.getEvictionCount());
+  }
+
+  @Test
+  public void testReplacementDoesNotEvict() {
+    BoundedRepository repository = new BoundedRepository(PACKET_SIZE, EvictionPolicy.LRU);
+    repository.put(buildFreshData("/a/0"));
+    repository.put(buildFreshData("/a/0"));
+
+    assertEquals(0, repository.getEvictionCount());
+    assertEquals(PACKET_SIZE, repository.getSize());
+  }
+}
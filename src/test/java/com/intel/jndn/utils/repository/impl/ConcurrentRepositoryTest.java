@@ -0,0 +1,112 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link ConcurrentRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ConcurrentRepositoryTest extends RepositoryTest {
+
+  public ConcurrentRepositoryTest() {
+    instance = new ConcurrentRepository();
+  }
+
+  @Test
+  public void testReplaceOnPut() throws DataNotFoundException {
+    instance.put(buildData("/a/b"));
+    Data replacement = buildData("/a/b");
+    replacement.setContent(new Blob("replaced"));
+    instance.put(replacement);
+    instance.put(buildData("/a/c"));
+
+    assertEquals(1, ((ConcurrentRepository) instance).getReplacedCount());
+    assertEquals("replaced", instance.get(buildInterest("/a/b")).getContent().toString());
+  }
+
+  @Test
+  public void testCleanupKeepsReplacedRecords() throws Exception {
+    instance.put(buildAlmostStaleData("/a/b"));
+    instance.put(buildFreshData("/a/b"));
+    Thread.sleep(10);
+    instance.cleanup();
+
+    assertTrue(instance.satisfies(buildInterest("/a/b")));
+  }
+
+  @Test
+  public void testRepublishingCompactsExpiryIndex() throws Exception {
+    ConcurrentRepository repository = (ConcurrentRepository) instance;
+    for (int i = 0; i < 1000; i++) {
+      repository.put(buildData("/a/b"));
+      repository.put(buildData("/a/c/" + (i % 10)));
+    }
+    repository.remove(new Name("/a/c"));
+
+    assertEquals(1989, repository.getReplacedCount());
+    assertTrue(repository.getExpiryIndexSize() < 200);
+    assertTrue(repository.satisfies(buildInterest("/a/b")));
+  }
+
+  @Test
+  public void testConcurrentPutAndGet() throws Exception {
+    int numThreads = 4;
+    int numPackets = 1000;
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads * 2);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int t = 0; t < numThreads; t++) {
+      final int thread = t;
+      futures.add(pool.submit(() -> {
+        for (int i = 0; i < numPackets; i++) {
+          instance.put(buildFreshData("/a/" + thread + "/" + i));
+        }
+      }));
+      futures.add(pool.submit(() -> {
+        for (int i = 0; i < numPackets; i++) {
+          instance.satisfies(buildInterest("/a").setChildSelector(Interest.CHILD_SELECTOR_RIGHT));
+          instance.cleanup();
+        }
+      }));
+    }
+
+    for (Future<?> future : futures) {
+      future.get(10, TimeUnit.SECONDS); // re-throws any ConcurrentModificationException
+    }
+    pool.shutdown();
+
+    for (int t = 0; t < numThreads; t++) {
+      assertEquals("/a/" + t + "/0", instance.get(buildInterest("/a/" + t + "/0")).getName().toUri());
+    }
+    assertEquals("/a/3/0", instance.get(buildInterest("/a").setChildSelector(Interest.CHILD_SELECTOR_RIGHT)).getName().toUri());
+    assertEquals("/a/0/0", instance.get(buildInterest("/a").setChildSelector(Interest.CHILD_SELECTOR_LEFT)).getName().toUri());
+  }
+}
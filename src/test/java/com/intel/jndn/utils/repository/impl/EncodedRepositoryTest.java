@@ -0,0 +1,75 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link EncodedRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class EncodedRepositoryTest extends RepositoryTest {
+
+  public EncodedRepositoryTest() {
+    instance = new EncodedRepository();
+  }
+
+  @Test
+  public void testGetEncoded() throws Exception {
+    Data data = buildFreshData("/a/b");
+    instance.put(data);
+    assertEquals(data.wireEncode(), instance.getEncoded(buildInterest("/a/b")));
+    assertEquals(data.wireEncode(), instance.getEncoded(buildInterest("/a")));
+  }
+
+  @Test
+  public void testSelectorsOnTypedComponents() throws Exception {
+    instance.put(buildSegment(0));
+    instance.put(buildSegment(1));
+    instance.put(buildSegment(2));
+
+    Interest interest = buildInterest("/a").setChildSelector(Interest.CHILD_SELECTOR_RIGHT);
+    assertEquals(2, instance.get(interest).getName().get(-1).toSegment());
+    interest.setChildSelector(Interest.CHILD_SELECTOR_LEFT);
+    assertEquals(0, instance.get(interest).getName().get(-1).toSegment());
+  }
+
+  @Test
+  public void testRepublishingCompactsExpiryIndex() throws Exception {
+    EncodedRepository repository = (EncodedRepository) instance;
+    for (int i = 0; i < 1000; i++) {
+      repository.put(buildData("/a/b"));
+      repository.putAll(Arrays.asList(buildData("/a/c/" + (i % 10)), buildData("/a/d")));
+    }
+
+    assertTrue(repository.getExpiryIndexSize() < 200);
+    assertTrue(repository.satisfies(buildInterest("/a/b")));
+    assertTrue(repository.satisfies(buildInterest("/a/c/9")));
+  }
+
+  private static Data buildSegment(long segment) {
+    Data data = buildFreshData("/a");
+    data.setName(new Name("/a").appendSegment(segment));
+    return data;
+  }
+}
@@ -13,6 +13,13 @@
  */
 package com.intel.jndn.utils.repository.impl;
 
+import net.named_data.jndn.Data;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
 /**
  * Test {@link ForLoopRepository}.
  *
@@ -23,4 +30,26 @@ public class ForLoopRepositoryTest extends RepositoryTest {
   public ForLoopRepositoryTest() {
     instance = new ForLoopRepository();
   }
+
+  @Test
+  public void testReplaceOnPut() throws DataNotFoundException {
+    ForLoopRepository repository = new ForLoopRepository(true);
+    repository.put(buildData("/a/b"));
+    Data replacement = buildData("/a/b");
+    replacement.setContent(new Blob("replaced"));
+    repository.put(replacement);
+    repository.put(buildData("/a/c"));
+
+    assertEquals(1, repository.getReplacedCount());
+    assertEquals("replaced", repository.get(buildInterest("/a/b")).getContent().toString());
+  }
+
+  @Test
+  public void testDuplicatesAreKeptByDefault() {
+    ForLoopRepository repository = new ForLoopRepository();
+    repository.put(buildData("/a/b"));
+    repository.put(buildData("/a/b"));
+
+    assertEquals(0, repository.getReplacedCount());
+  }
 }
@@ -0,0 +1,188 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.util.Blob;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link LogRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class LogRepositoryTest extends RepositoryTest {
+
+  private final Path directory;
+
+  public LogRepositoryTest() throws IOException {
+    directory = Files.createTempDirectory("log-repository");
+    instance = new LogRepository(directory, 1);
+  }
+
+  @After
+  public void after() throws IOException {
+    ((LogRepository) instance).close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Test
+  public void testRecoveryByScanning() throws Exception {
+    instance.put(buildFreshData("/a/b"));
+    instance.put(buildFreshData("/a/c"));
+    ((LogRepository) instance).close();
+    Files.delete(directory.resolve("index.checkpoint"));
+
+    LogRepository reopened = new LogRepository(directory);
+    assertTrue(reopened.satisfies(buildInterest("/a/b")));
+    assertEquals("...", reopened.get(buildInterest("/a/c")).getContent().toString());
+    reopened.close();
+  }
+
+  @Test
+  public void testRecoveryFromCheckpoint() throws Exception {
+    instance.put(buildFreshData("/a/b"));
+    ((LogRepository) instance).checkpoint();
+    Path checkpoint = directory.resolve("index.checkpoint");
+    byte[] saved = Files.readAllBytes(checkpoint);
+    instance.put(buildFreshData("/a/c"));
+    ((LogRepository) instance).close();
+    Files.write(checkpoint, saved); // as if the process crashed before closing
+
+    LogRepository reopened = new LogRepository(directory);
+    assertTrue(reopened.satisfies(buildInterest("/a/b")));
+    assertTrue(reopened.satisfies(buildInterest("/a/c")));
+    reopened.close();
+  }
+
+  @Test
+  public void testRecoveryTruncatesTornRecord() throws Exception {
+    instance.put(buildFreshData("/a/b"));
+    instance.put(buildFreshData("/a/c"));
+    ((LogRepository) instance).close();
+    Files.delete(directory.resolve("index.checkpoint"));
+    try (FileChannel log = FileChannel.open(directory.resolve("data.log"), StandardOpenOption.WRITE)) {
+      log.truncate(log.size() - 1);
+    }
+
+    LogRepository reopened = new LogRepository(directory);
+    assertTrue(reopened.satisfies(buildInterest("/a/b")));
+    assertFalse(reopened.satisfies(buildInterest("/a/c")));
+
+    reopened.put(buildFreshData("/a/d"));
+    reopened.close();
+    reopened = new LogRepository(directory);
+    assertTrue(reopened.satisfies(buildInterest("/a/d")));
+    reopened.close();
+  }
+
+  @Test
+  public void testPutAllWritesInChunks() throws Exception {
+    List<Data> packets = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Data data = buildFreshData("/a/small/" + i);
+      data.setContent(new Blob(new byte[1000]));
+      packets.add(data);
+    }
+    Data large = buildFreshData("/a/large");
+    large.setContent(new Blob(new byte[3 * 1024 * 1024]));
+    packets.add(1000, large);
+    instance.putAll(packets);
+    ((LogRepository) instance).close();
+    Files.delete(directory.resolve("index.checkpoint"));
+
+    instance = new LogRepository(directory);
+    assertEquals(3 * 1024 * 1024, instance.get(buildInterest("/a/large")).getContent().size());
+    assertEquals(1000, instance.get(buildInterest("/a/small/0")).getContent().size());
+    assertEquals(1000, instance.get(buildInterest("/a/small/1999")).getContent().size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDirectoryIsLocked() throws Exception {
+    new LogRepository(directory);
+  }
+
+  @Test
+  public void testInterruptedReadReopensLog() throws Exception {
+    instance.put(buildFreshData("/a/b"));
+
+    Thread.currentThread().interrupt();
+    try {
+      instance.get(buildInterest("/a/b"));
+      fail("An interrupted read should fail");
+    } catch (DataNotFoundException e) {
+      assertTrue(Thread.interrupted());
+    }
+
+    assertEquals("...", instance.get(buildInterest("/a/b")).getContent().toString());
+    instance.put(buildFreshData("/a/c"));
+    assertTrue(instance.satisfies(buildInterest("/a/c")));
+  }
+
+  @Test
+  public void testRepublishingCompactsExpiryIndex() throws Exception {
+    LogRepository repository = (LogRepository) instance;
+    for (int i = 0; i < 100; i++) {
+      List<Data> batch = new ArrayList<>();
+      for (int j = 0; j < 10; j++) {
+        batch.add(buildData("/a/" + j));
+      }
+      repository.putAll(batch);
+    }
+
+    assertTrue(repository.getExpiryIndexSize() < 200);
+    assertTrue(repository.satisfies(buildInterest("/a/9")));
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    LogRepository repository = (LogRepository) instance;
+    repository.put(buildData("/a/b"));
+    Data replacement = buildData("/a/b");
+    replacement.setContent(new Blob("replaced"));
+    repository.put(replacement);
+    repository.put(buildAlmostStaleData("/a/c"));
+    long before = Files.size(directory.resolve("data.log"));
+
+    Thread.sleep(10);
+    repository.cleanup(); // more than half of the log is dead so this compacts
+
+    assertTrue(Files.size(directory.resolve("data.log")) < before);
+    assertEquals("replaced", repository.get(buildInterest("/a/b")).getContent().toString());
+    assertFalse(repository.satisfies(buildInterest("/a/c")));
+    assertEquals(1, repository.getExpiryIndexSize()); // only the moved entry of /a/b
+
+    repository.put(buildFreshData("/a/d"));
+    repository.close();
+    instance = new LogRepository(directory);
+    assertEquals("replaced", instance.get(buildInterest("/a/b")).getContent().toString());
+    assertTrue(instance.satisfies(buildInterest("/a/d")));
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import com.intel.jndn.utils.Cancellation;
+import com.intel.jndn.utils.Repository;
+import net.named_data.jndn.Interest;
+import org.junit.Test;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link RepositorySweeper}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class RepositorySweeperTest {
+
+  @Test
+  public void testSweep() throws InterruptedException {
+    Repository repository = new ConcurrentRepository();
+    repository.put(buildAlmostStaleData("/stale/data"));
+    repository.put(buildFreshData("/fresh/data"));
+
+    Cancellation sweeps = RepositorySweeper.sweep(repository, 5);
+    Thread.sleep(100);
+    sweeps.cancel();
+
+    Interest interest = buildInterest("/stale/data");
+    interest.setMustBeFresh(false);
+    assertFalse(repository.satisfies(interest));
+    assertTrue(repository.satisfies(buildInterest("/fresh/data")));
+  }
+}
@@ -19,6 +19,9 @@ import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
 import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
 import static org.junit.Assert.*;
 
@@ -38,6 +41,25 @@ public abstract class RepositoryTest {
     assertEquals("...", data.getContent().toString());
   }
 
+  @Test
+  public void testPutAll() throws DataNotFoundException {
+    instance.putAll(Arrays.asList(buildData("/a/b/1"), buildData("/a/b/2"), buildData("/a/b/3")));
+
+    assertTrue(instance.satisfies(buildInterest("/a/b/1")));
+    assertTrue(instance.satisfies(buildInterest("/a/b/2")));
+    Data data = instance.get(buildInterest("/a/b").setChildSelector(Interest.CHILD_SELECTOR_RIGHT));
+    assertEquals("/a/b/3", data.getName().toUri());
+  }
+
+  @Test
+  public void testPutAllStream() throws DataNotFoundException {
+    int count = Repository.STREAM_BATCH_SIZE * 2 + 1;
+    instance.putAll(IntStream.range(0, count).mapToObj(i -> buildData("/a/s/" + i)));
+
+    assertTrue(instance.satisfies(buildInterest("/a/s/0")));
+    assertTrue(instance.satisfies(buildInterest("/a/s/" + (count - 1))));
+  }
+
   @Test
   public void testThatChildSelectorsRetrieve() throws DataNotFoundException {
     instance.put(buildData("/a/b/c"));
@@ -0,0 +1,80 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.repository.impl;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import static com.intel.jndn.utils.repository.impl.RepoHelper.*;
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link VersionedRepository}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class VersionedRepositoryTest extends RepositoryTest {
+
+  public VersionedRepositoryTest() {
+    instance = new VersionedRepository();
+  }
+
+  @Test
+  public void testLatestVersion() throws DataNotFoundException {
+    instance.put(buildVersion(1, 0));
+    instance.put(buildVersion(3, 1));
+    instance.put(buildVersion(3, 0));
+    instance.put(buildVersion(2, 0));
+
+    assertEquals(3, ((VersionedRepository) instance).getLatestVersion(new Name("/obj")));
+    Data data = instance.get(buildInterest("/obj").setChildSelector(Interest.CHILD_SELECTOR_RIGHT));
+    assertEquals(new Name("/obj").appendVersion(3).appendSegment(0), data.getName());
+  }
+
+  @Test
+  public void testRetainedVersions() {
+    VersionedRepository repository = new VersionedRepository(2);
+    repository.put(buildVersion(1, 0));
+    repository.put(buildVersion(2, 0));
+    repository.put(buildVersion(3, 0));
+    repository.put(buildVersion(0, 0));
+
+    assertFalse(repository.satisfies(buildInterest(new Name("/obj").appendVersion(0).toUri())));
+    assertFalse(repository.satisfies(buildInterest(new Name("/obj").appendVersion(1).toUri())));
+    assertTrue(repository.satisfies(buildInterest(new Name("/obj").appendVersion(2).toUri())));
+    assertTrue(repository.satisfies(buildInterest(new Name("/obj").appendVersion(3).toUri())));
+  }
+
+  @Test
+  public void testCleanupFallsBackToOlderVersion() throws Exception {
+    instance.put(buildVersion(1, 0));
+    Data stale = buildVersion(2, 0);
+    stale.getMetaInfo().setFreshnessPeriod(0);
+    instance.put(stale);
+    Thread.sleep(10);
+    instance.cleanup();
+
+    assertEquals(1, ((VersionedRepository) instance).getLatestVersion(new Name("/obj")));
+    Interest interest = buildInterest("/obj").setChildSelector(Interest.CHILD_SELECTOR_RIGHT);
+    assertEquals(new Name("/obj").appendVersion(1).appendSegment(0), instance.get(interest).getName());
+  }
+
+  private static Data buildVersion(long version, long segment) {
+    Data data = buildFreshData("/obj");
+    data.setName(new Name("/obj").appendVersion(version).appendSegment(segment));
+    return data;
+  }
+}
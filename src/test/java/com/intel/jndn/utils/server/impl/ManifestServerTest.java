@@ -0,0 +1,101 @@
+/*
+ * jndn-utils
+ * Copyright (c) 2016, Intel Corporation.
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms and conditions of the GNU Lesser General Public License,
+ * version 3, as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details.
+ */
+package com.intel.jndn.utils.server.impl;
+
+import com.intel.jndn.mock.MockForwarder;
+import com.intel.jndn.utils.SegmentSizePolicy;
+import com.intel.jndn.utils.client.impl.ManifestClient;
+import com.intel.jndn.utils.impl.KeyChainFactory;
+import com.intel.jndn.utils.impl.ManifestHelper;
+import com.intel.jndn.utils.processing.impl.SigningStage;
+import com.intel.jndn.utils.repository.impl.ConcurrentRepository;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.SecurityException;
+import net.named_data.jndn.util.Blob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link ManifestServer} with a {@link ManifestClient}.
+ *
+ * @author Andrew Brown, andrew.brown@intel.com
+ */
+public class ManifestServerTest {
+
+  private Face face;
+  private ConcurrentRepository repository;
+  private ManifestServer instance;
+  private ManifestClient client;
+
+  @Before
+  public void before() throws Exception {
+    MockForwarder forwarder = new MockForwarder();
+    face = forwarder.connect();
+    KeyChain keyChain = KeyChainFactory.configureTestKeyChain(new Name("/test/manifest"));
+    repository = new ConcurrentRepository();
+    instance = new ManifestServer(face, new Name("/test/prefix"), repository);
+    instance.addPostProcessingStage(new SigningStage(keyChain));
+    instance.setSegmentSizePolicy(SegmentSizePolicy.fixed(100));
+    client = new ManifestClient(keyChain);
+  }
+
+  @Test
+  public void testServeAndRetrieve() throws Exception {
+    byte[] content = new byte[50000]; // 500 segments, listed by 4 manifests
+    new Random().nextBytes(content);
+    Data in = new Data(new Name("/test/prefix/object"));
+    in.setContent(new Blob(content));
+    instance.serve(in);
+
+    Data out = client.getSync(face, new Name("/test/prefix/object"));
+    assertEquals("/test/prefix/object", out.getName().toUri());
+    assertEquals(new Blob(content), out.getContent());
+  }
+
+  @Test
+  public void testServeSmallPacket() throws Exception {
+    Data in = new Data(new Name("/test/prefix/small"));
+    in.setContent(new Blob("1234"));
+    instance.serve(in);
+
+    assertEquals("1234", client.getSync(face, new Name("/test/prefix/small")).getContent().toString());
+  }
+
+  @Test
+  public void testTamperedSegment() throws Exception {
+    Data in = new Data(new Name("/test/prefix/tampered"));
+    in.setContent(new Blob(new byte[1000]));
+    instance.serve(in);
+
+    Data tampered = new Data(new Name("/test/prefix/tampered").appendSegment(3));
+    tampered.setContent(new Blob(new byte[100]));
+    tampered.getMetaInfo().setFreshnessPeriod(1);
+    repository.put(ManifestHelper.signWithDigest(tampered));
+
+    try {
+      client.getSync(face, new Name("/test/prefix/tampered"));
+      fail("A tampered segment must not be accepted");
+    } catch (IOException e) {
+      assertTrue(e.getCause().getCause() instanceof SecurityException);
+    }
+  }
+}
@@ -14,7 +14,13 @@
 package com.intel.jndn.utils.server.impl;
 
 import com.intel.jndn.mock.MockForwarder;
+import com.intel.jndn.utils.Repository;
+import com.intel.jndn.utils.SegmentSizePolicy;
 import com.intel.jndn.utils.client.impl.AdvancedClient;
+import com.intel.jndn.utils.repository.impl.ConcurrentRepository;
+import com.intel.jndn.utils.client.impl.SimpleClient;
+import com.intel.jndn.utils.impl.FileSegmentSource;
+import com.intel.jndn.utils.impl.SegmentationHelper;
 import net.named_data.jndn.Data;
 import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
@@ -24,9 +30,19 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -72,6 +88,109 @@ public class SegmentedServerTest {
     assertEquals("1234", out.getContent().toString());
   }
   
+  @Test
+  public void testServeAll() throws IOException {
+    Data small = new Data(new Name("/test/prefix/small"));
+    small.setContent(new Blob("1234"));
+    Data large = new Data(new Name("/test/prefix/large"));
+    large.setContent(new Blob(new byte[10000]));
+    instance.serveAll(Arrays.asList(small, large));
+
+    Data out = AdvancedClient.getDefault().getSync(face, new Name("/test/prefix/small"));
+    assertEquals("1234", out.getContent().toString());
+    out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/large").appendSegment(2));
+    assertEquals(10000 - 2 * SegmentationHelper.DEFAULT_SEGMENT_SIZE, out.getContent().size());
+  }
+
+  @Test
+  public void testServeAllStream() throws IOException {
+    instance.serveAll(IntStream.range(0, Repository.STREAM_BATCH_SIZE + 1).mapToObj(i -> {
+      Data data = new Data(new Name("/test/prefix/stream").append(Integer.toString(i)));
+      data.setContent(new Blob("1234"));
+      return data;
+    }));
+
+    Data out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/stream").append(Integer.toString(Repository.STREAM_BATCH_SIZE)));
+    assertEquals("1234", out.getContent().toString());
+  }
+
+  @Test
+  public void testProcessOnIngest() throws Exception {
+    AtomicInteger processed = new AtomicInteger();
+    instance = new SegmentedServer(face, new Name("/test/prefix"), new ConcurrentRepository(), ForkJoinPool.commonPool());
+    instance.addPostProcessingStage(data -> {
+      processed.incrementAndGet();
+      data.getMetaInfo().setFreshnessPeriod(60000);
+      return data;
+    });
+
+    Data in = new Data(new Name("/test/prefix/ingest"));
+    in.setContent(new Blob(new byte[10000]));
+    instance.serve(in);
+    assertEquals(3, processed.get());
+
+    Data out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/ingest").appendSegment(1));
+    assertEquals(60000, out.getMetaInfo().getFreshnessPeriod(), 0);
+    assertEquals(2, out.getMetaInfo().getFinalBlockId().toSegment());
+    assertEquals(3, processed.get());
+  }
+
+  @Test
+  public void testParallelPipelinePreservesOrder() throws Exception {
+    instance.addPostProcessingStage(data -> new Data(data).setContent(new Blob(data.getName().toUri())));
+    List<Data> packets = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      packets.add(new Data(new Name("/test/prefix/order").appendSegment(i)));
+    }
+
+    List<Data> processed = instance.processPipeline(packets, ForkJoinPool.commonPool());
+    assertEquals(100, processed.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(packets.get(i).getName().toUri(), processed.get(i).getContent().toString());
+    }
+  }
+
+  @Test
+  public void testServeFile() throws Exception {
+    Path file = Files.createTempFile("segmented-server", ".txt");
+    Files.write(file, new byte[10000]);
+    try (FileSegmentSource source = new FileSegmentSource(file, new Data(new Name("/test/prefix/file")))) {
+      instance.serve(source);
+
+      Data out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/file").appendSegment(2));
+      assertEquals(10000 - 2 * SegmentationHelper.DEFAULT_SEGMENT_SIZE, out.getContent().size());
+      assertEquals(2, out.getMetaInfo().getFinalBlockId().toSegment());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testSegmentSizePolicy() throws Exception {
+    instance.setSegmentSizePolicy(SegmentSizePolicy.fixed(100));
+    Data in = new Data(new Name("/test/prefix/policy"));
+    in.setContent(new Blob(new byte[1050]));
+    instance.serve(in);
+
+    Data out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/policy").appendSegment(10));
+    assertEquals(50, out.getContent().size());
+    assertEquals(10, out.getMetaInfo().getFinalBlockId().toSegment());
+  }
+
+  @Test
+  public void testServeByOffset() throws Exception {
+    Data in = new Data(new Name("/test/prefix/offset"));
+    in.setContent(new Blob("0123456789"));
+    instance.serveByOffset(in);
+
+    Data out = SimpleClient.getDefault().getSync(face, new Name("/test/prefix/offset").appendSegmentOffset(6));
+    assertEquals("6789", out.getContent().toString());
+    assertEquals(6, out.getMetaInfo().getFinalBlockId().toSegmentOffset());
+
+    assertTrue(instance.unserve(new Name("/test/prefix/offset")));
+    assertFalse(instance.unserve(new Name("/test/prefix/offset")));
+  }
+
   @Test(expected = IOException.class)
   public void testCleanup() throws Exception{
     Data in = new Data(new Name("/test"));